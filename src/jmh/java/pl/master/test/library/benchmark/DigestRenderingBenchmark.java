@@ -0,0 +1,101 @@
+package pl.master.test.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.model.dto.DailyDigest;
+import pl.master.test.library.service.DigestRenderer;
+import pl.master.test.library.service.NewBooksIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DigestRenderingBenchmark {
+
+    private static final int NEW_BOOKS = 200;
+    private static final int AUTHORS = 50;
+    private static final int CATEGORIES = 20;
+    private static final int CLIENTS_PER_BATCH = 500;
+    private static final int FINGERPRINT_CACHE_SIZE = 100_000;
+
+    @Param({"10", "500"})
+    private int distinctSubscriptions;
+
+    private NewBooksIndex newBooks;
+    private DigestRenderer renderer;
+    private List<ClientSubscriptions> clients;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        List<Book> books = new ArrayList<>(NEW_BOOKS);
+        for (int i = 0; i < NEW_BOOKS; i++) {
+            books.add(Book.builder()
+                    .id(i + 1)
+                    .title("Title " + i)
+                    .author("Author" + random.nextInt(AUTHORS))
+                    .category("Category" + random.nextInt(CATEGORIES))
+                    .build());
+        }
+        newBooks = NewBooksIndex.of(books);
+        renderer = DigestRenderer.of(newBooks, FINGERPRINT_CACHE_SIZE);
+
+        List<ClientSubscriptions> profiles = new ArrayList<>(distinctSubscriptions);
+        for (int i = 0; i < distinctSubscriptions; i++) {
+            profiles.add(new ClientSubscriptions(0, null,
+                    new HashSet<>(List.of("Author" + random.nextInt(AUTHORS), "Author" + random.nextInt(AUTHORS))),
+                    new HashSet<>(List.of("Category" + random.nextInt(CATEGORIES)))));
+        }
+        clients = new ArrayList<>(CLIENTS_PER_BATCH);
+        for (int i = 0; i < CLIENTS_PER_BATCH; i++) {
+            ClientSubscriptions profile = profiles.get(i % distinctSubscriptions);
+            clients.add(new ClientSubscriptions(i + 1, "client" + i + "@library.com",
+                    new HashSet<>(profile.getSubscribedAuthors()), new HashSet<>(profile.getSubscribedCategories())));
+        }
+    }
+
+    @Benchmark
+    public DailyDigest renderDigest() {
+        return renderer.render(nextClient());
+    }
+
+    @Benchmark
+    public DailyDigest renderDigestWithStreamJoining() {
+        ClientSubscriptions client = nextClient();
+        List<Book> booksOfInterest = newBooks.match(client.getSubscribedAuthors(), client.getSubscribedCategories());
+        if (booksOfInterest.isEmpty()) {
+            return null;
+        }
+        return new DailyDigest(client.getEmail(), booksOfInterest.stream()
+                .map(book -> "Title: " + book.getTitle() + ", Author: " + book.getAuthor())
+                .collect(Collectors.joining("\n", "New books available:\n", "")));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS_PER_BATCH)
+    public void renderFreshRun(Blackhole blackhole) {
+        DigestRenderer run = DigestRenderer.of(newBooks, FINGERPRINT_CACHE_SIZE);
+        for (ClientSubscriptions client : clients) {
+            blackhole.consume(run.render(client));
+        }
+    }
+
+    private ClientSubscriptions nextClient() {
+        ClientSubscriptions client = clients.get(next);
+        next = (next + 1) % clients.size();
+        return client;
+    }
+}
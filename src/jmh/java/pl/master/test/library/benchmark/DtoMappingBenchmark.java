@@ -0,0 +1,51 @@
+package pl.master.test.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.ClientDto;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private Book book;
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        book = Book.builder()
+                .id(1)
+                .author("Rowling")
+                .title("Potter")
+                .category("Fantasy")
+                .build();
+        client = Client.builder()
+                .id(1)
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .email("jan@library.com")
+                .enabled(true)
+                .subscribedAuthors(new HashSet<>())
+                .subscribedCategories(new HashSet<>())
+                .build();
+    }
+
+    @Benchmark
+    public BookDto bookFromEntity() {
+        return BookDto.fromEntity(book);
+    }
+
+    @Benchmark
+    public ClientDto clientFromEntity() {
+        return ClientDto.fromEntity(client);
+    }
+}
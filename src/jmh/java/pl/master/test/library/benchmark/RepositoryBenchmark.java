@@ -0,0 +1,101 @@
+package pl.master.test.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.master.test.library.LibraryApplication;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.repository.BookRepository;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RepositoryBenchmark {
+
+    private static final int AUTHORS = 1000;
+    private static final int CATEGORIES = 100;
+    private static final int CLIENTS_PER_BOOK = 10;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private ClientRepository clientRepository;
+    private int clients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "scheduled.cron.expression=-",
+                        "spring.rabbitmq.listener.simple.auto-startup=false",
+                        "logging.level.root=WARN")
+                .run();
+        bookRepository = context.getBean(BookRepository.class);
+        clientRepository = context.getBean(ClientRepository.class);
+        clients = Math.max(rows / CLIENTS_PER_BOOK, 1);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO book (author, title, category, created_date) " +
+                "SELECT 'Author' || MOD(X, ?), 'Title' || X, 'Category' || MOD(X, ?), " +
+                "DATEADD('MINUTE', -X, CURRENT_TIMESTAMP) FROM SYSTEM_RANGE(1, ?)", AUTHORS, CATEGORIES, rows);
+        jdbcTemplate.update("INSERT INTO client (first_name, last_name, email, enabled) " +
+                "SELECT 'First', 'Last', 'client' || X || '@library.com', MOD(X, 10) <> 0 " +
+                "FROM SYSTEM_RANGE(1, ?)", clients);
+        jdbcTemplate.update("INSERT INTO client_subscription_author (client_id, author_name) " +
+                "SELECT id, 'Author' || MOD(id, ?) FROM client", AUTHORS);
+        jdbcTemplate.update("INSERT INTO client_subscription_category (client_id, category_name) " +
+                "SELECT id, 'Category' || MOD(id, ?) FROM client", CATEGORIES);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> findAllCreatedBetween() {
+        LocalDateTime now = LocalDateTime.now();
+        return bookRepository.findAllCreatedBetween(now.minusDays(1), now);
+    }
+
+    @Benchmark
+    public List<ClientSubscriptions> findNextSubscriptionsBatch() {
+        int lastSeenId = ThreadLocalRandom.current().nextInt(clients);
+        return clientRepository.findNextSubscriptionsBatch(lastSeenId, 500);
+    }
+
+    @Benchmark
+    public Set<String> findEmailsOfClientsSubscribedToAuthorOrCategory() {
+        int key = ThreadLocalRandom.current().nextInt(CATEGORIES);
+        return bookRepository.findEmailsOfClientsSubscribedToAuthorOrCategory("Author" + key, "Category" + key);
+    }
+
+    @Benchmark
+    public List<BookDto> findBooksAfter() {
+        int afterId = ThreadLocalRandom.current().nextInt(rows);
+        return bookRepository.findBooksAfter(afterId, PageRequest.ofSize(100));
+    }
+}
@@ -7,9 +7,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.filter.HiddenHttpMethodFilter;
 import pl.master.test.library.properties.LibraryApiProperties;
+import pl.master.test.library.properties.LibraryMailProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(LibraryApiProperties.class)
+@EnableConfigurationProperties({LibraryApiProperties.class, LibraryMailProperties.class})
 @EnableScheduling
 public class LibraryApplication {
 
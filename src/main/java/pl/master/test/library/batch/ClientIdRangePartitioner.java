@@ -0,0 +1,46 @@
+package pl.master.test.library.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class ClientIdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID = "minId";
+    public static final String MAX_ID = "maxId";
+
+    private final ClientRepository clientRepository;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Optional<Integer> min = clientRepository.findMinEnabledClientId();
+        Optional<Integer> max = clientRepository.findMaxEnabledClientId();
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        if (min.isEmpty() || max.isEmpty()) {
+            return partitions;
+        }
+
+        long span = (long) max.get() - min.get() + 1;
+        long rangeSize = (span + gridSize - 1) / gridSize;
+        for (int i = 0; i < gridSize; i++) {
+            long from = min.get() + i * rangeSize;
+            if (from > max.get()) {
+                break;
+            }
+            long to = Math.min(from + rangeSize - 1, max.get());
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(MIN_ID, (int) from);
+            context.putInt(MAX_ID, (int) to);
+            partitions.put("partition" + i, context);
+        }
+        return partitions;
+    }
+}
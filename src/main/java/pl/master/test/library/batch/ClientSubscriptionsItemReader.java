@@ -0,0 +1,61 @@
+package pl.master.test.library.batch;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class ClientSubscriptionsItemReader implements ItemStreamReader<ClientSubscriptions> {
+
+    static final String LAST_SEEN_ID = "lastSeenId";
+
+    private final ClientRepository clientRepository;
+    private final int minId;
+    private final int maxId;
+    private final int pageSize;
+
+    private int lastSeenId;
+    private Iterator<ClientSubscriptions> page = Collections.emptyIterator();
+    private boolean exhausted;
+
+    public ClientSubscriptionsItemReader(ClientRepository clientRepository, int minId, int maxId, int pageSize) {
+        this.clientRepository = clientRepository;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lastSeenId = executionContext.getInt(LAST_SEEN_ID, minId - 1);
+        page = Collections.emptyIterator();
+        exhausted = false;
+    }
+
+    @Override
+    public ClientSubscriptions read() {
+        if (!page.hasNext()) {
+            if (exhausted) {
+                return null;
+            }
+            List<ClientSubscriptions> clients = clientRepository.findNextSubscriptionsBatch(lastSeenId, maxId, pageSize);
+            exhausted = clients.size() < pageSize;
+            page = clients.iterator();
+            if (!page.hasNext()) {
+                return null;
+            }
+        }
+        ClientSubscriptions client = page.next();
+        lastSeenId = client.getClientId();
+        return client;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putInt(LAST_SEEN_ID, lastSeenId);
+    }
+}
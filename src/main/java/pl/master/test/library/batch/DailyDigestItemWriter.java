@@ -0,0 +1,54 @@
+package pl.master.test.library.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import pl.master.test.library.model.dto.DailyDigest;
+import pl.master.test.library.model.dto.MailBatchReport;
+import pl.master.test.library.service.RegistrationService;
+
+import java.util.*;
+
+@RequiredArgsConstructor
+public class DailyDigestItemWriter implements ItemWriter<DailyDigest>, ChunkListener {
+
+    private final RegistrationService registrationService;
+    private final Set<String> deliveredNotCommitted = new HashSet<>();
+    private final List<String> committing = new ArrayList<>();
+
+    @Override
+    public void write(Chunk<? extends DailyDigest> chunk) {
+        committing.clear();
+        Map<String, String> pending = new LinkedHashMap<>();
+        for (DailyDigest digest : chunk) {
+            if (!deliveredNotCommitted.contains(digest.getEmail())) {
+                pending.put(digest.getEmail(), digest.getText());
+            }
+        }
+        if (!pending.isEmpty()) {
+            send(pending);
+        }
+        chunk.forEach(digest -> committing.add(digest.getEmail()));
+    }
+
+    private void send(Map<String, String> pending) {
+        MailBatchReport report = registrationService.newLibraryPositions(pending);
+        for (SimpleMailMessage message : report.getDelivered()) {
+            deliveredNotCommitted.add(message.getTo()[0]);
+        }
+        if (report.hasFailures()) {
+            Map<Object, Exception> failedMessages = new LinkedHashMap<>(report.getFailed());
+            throw new MailSendException("Failed to deliver " + failedMessages.size() + " digest(s)", null, failedMessages);
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        committing.forEach(deliveredNotCommitted::remove);
+        committing.clear();
+    }
+}
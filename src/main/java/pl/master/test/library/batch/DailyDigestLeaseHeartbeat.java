@@ -0,0 +1,22 @@
+package pl.master.test.library.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.service.DailyNotificationService;
+import pl.master.test.library.service.SchedulerLock;
+
+@Component
+@RequiredArgsConstructor
+public class DailyDigestLeaseHeartbeat implements ChunkListener {
+
+    private final SchedulerLock schedulerLock;
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (!schedulerLock.extend(DailyNotificationService.DAILY_DIGEST_LEASE)) {
+            throw new IllegalStateException("Daily digest lease was taken over by another node, stopping this run");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package pl.master.test.library.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.config.DailyDigestJobConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class DailyDigestMetrics implements JobExecutionListener {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String status = jobExecution.getStatus().name();
+        LocalDateTime endTime = jobExecution.getEndTime() != null ? jobExecution.getEndTime() : LocalDateTime.now();
+        if (jobExecution.getStartTime() != null) {
+            Timer.builder("library.digest.duration")
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(Duration.between(jobExecution.getStartTime(), endTime));
+        }
+        jobExecution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals(DailyDigestJobConfig.DAILY_DIGEST_STEP))
+                .forEach(step -> {
+                    meterRegistry.counter("library.digest.clients", "status", status).increment(step.getReadCount());
+                    meterRegistry.counter("library.digest.mails", "status", status).increment(step.getWriteCount());
+                    meterRegistry.counter("library.digest.skipped", "status", status).increment(step.getSkipCount());
+                });
+    }
+}
@@ -0,0 +1,46 @@
+package pl.master.test.library.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.repository.BookRepository;
+import pl.master.test.library.service.DigestRenderer;
+import pl.master.test.library.service.NewBooksIndex;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DigestRendererRegistry implements JobExecutionListener {
+
+    private final BookRepository bookRepository;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, DigestRenderer> renderers = new ConcurrentHashMap<>();
+
+    @Value("${notification.digest-cache-size}")
+    private long digestCacheSize;
+
+    public DigestRenderer get(long jobExecutionId, LocalDateTime since, LocalDateTime until) {
+        return renderers.computeIfAbsent(jobExecutionId, id -> {
+            NewBooksIndex books = NewBooksIndex.of(bookRepository.findAllCreatedBetween(since, until));
+            meterRegistry.counter("library.digest.books").increment(books.size());
+            return DigestRenderer.of(books, digestCacheSize);
+        });
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        DigestRenderer renderer = renderers.remove(jobExecution.getId());
+        if (renderer != null) {
+            log.info("Daily digest execution {} rendered {} distinct digest bodies",
+                    jobExecution.getId(), renderer.distinctFingerprints());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package pl.master.test.library.common;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -53,6 +54,12 @@ public class GlobalExceptionHandler {
         return new ExceptionDto(exception.getMessage());
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionDto handleDataIntegrityViolationException(DataIntegrityViolationException exception) {
+        return new ExceptionDto("Request conflicts with the current state of the resource");
+    }
+
     @ExceptionHandler(JsonMappingException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ExceptionDto handleJsonMappingException(JsonMappingException exception) {
@@ -0,0 +1,52 @@
+package pl.master.test.library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AmqpConfig {
+
+    public static final String BOOK_ADDED_QUEUE = "library.book.added";
+    public static final String BOOK_NOTIFICATION_QUEUE = "library.book.notification";
+    public static final String SUBSCRIPTION_CHANGED_EXCHANGE = "library.subscription.changed";
+
+    @Bean
+    public Queue bookAddedQueue() {
+        return QueueBuilder.durable(BOOK_ADDED_QUEUE).build();
+    }
+
+    @Bean
+    public Queue bookNotificationQueue() {
+        return QueueBuilder.durable(BOOK_NOTIFICATION_QUEUE).build();
+    }
+
+    @Bean
+    public FanoutExchange subscriptionChangedExchange() {
+        return ExchangeBuilder.fanoutExchange(SUBSCRIPTION_CHANGED_EXCHANGE).durable(true).build();
+    }
+
+    @Bean
+    public Queue subscriptionChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding subscriptionChangedBinding(Queue subscriptionChangedQueue, FanoutExchange subscriptionChangedExchange) {
+        return BindingBuilder.bind(subscriptionChangedQueue).to(subscriptionChangedExchange);
+    }
+
+    @Bean
+    public MessageConverter amqpMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,128 @@
+package pl.master.test.library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JpaItemWriter;
+import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemProcessor;
+import org.springframework.batch.item.validator.BeanValidatingItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.command.CreateBookCommand;
+import pl.master.test.library.service.CatalogueFacetService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Configuration
+public class BookImportJobConfig {
+
+    public static final String BOOK_IMPORT_JOB = "bookImportJob";
+    public static final String FILE = "file";
+    public static final String FILE_SIZE = "fileSize";
+    public static final String FILE_LAST_MODIFIED = "fileLastModified";
+
+    @Value("${book.import.chunk-size}")
+    private int chunkSize;
+    @Value("${book.import.skip-limit}")
+    private int skipLimit;
+
+    @Bean
+    public Job bookImportJob(JobRepository jobRepository, Step bookImportStep, CatalogueFacetService catalogueFacetService) {
+        return new JobBuilder(BOOK_IMPORT_JOB, jobRepository)
+                .listener(catalogueFacetService)
+                .start(bookImportStep)
+                .build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor bookImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("book-import-");
+        return executor;
+    }
+
+    @Bean
+    public JobLauncher bookImportJobLauncher(JobRepository jobRepository, ThreadPoolTaskExecutor bookImportExecutor) {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(bookImportExecutor);
+        return jobLauncher;
+    }
+
+    @Bean
+    public Step bookImportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                               FlatFileItemReader<CreateBookCommand> bookImportReader,
+                               CompositeItemProcessor<CreateBookCommand, Book> bookImportProcessor,
+                               JpaItemWriter<Book> bookImportWriter) {
+        return new StepBuilder("bookImportStep", jobRepository)
+                .<CreateBookCommand, Book>chunk(chunkSize, transactionManager)
+                .reader(bookImportReader)
+                .processor(bookImportProcessor)
+                .writer(bookImportWriter)
+                .faultTolerant()
+                .skip(FlatFileParseException.class)
+                .skipLimit(skipLimit)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemReader<CreateBookCommand> bookImportReader(ObjectMapper objectMapper,
+                                                                  @Value("#{jobParameters['file']}") String file) {
+        FlatFileItemReaderBuilder<CreateBookCommand> builder = new FlatFileItemReaderBuilder<CreateBookCommand>()
+                .name("bookImportReader")
+                .resource(new FileSystemResource(file))
+                .encoding(StandardCharsets.UTF_8.name())
+                .strict(true);
+        if (file.endsWith(".csv")) {
+            return builder
+                    .linesToSkip(1)
+                    .delimited()
+                    .names("author", "title", "category")
+                    .targetType(CreateBookCommand.class)
+                    .build();
+        }
+        return builder
+                .lineMapper((line, lineNumber) -> objectMapper.readValue(line, CreateBookCommand.class))
+                .build();
+    }
+
+    @Bean
+    public CompositeItemProcessor<CreateBookCommand, Book> bookImportProcessor() throws Exception {
+        BeanValidatingItemProcessor<CreateBookCommand> validatingProcessor = new BeanValidatingItemProcessor<>();
+        validatingProcessor.setFilter(true);
+        validatingProcessor.afterPropertiesSet();
+        ItemProcessor<CreateBookCommand, Book> toEntity = CreateBookCommand::toEntity;
+        CompositeItemProcessor<CreateBookCommand, Book> processor = new CompositeItemProcessor<>();
+        processor.setDelegates(List.of(validatingProcessor, toEntity));
+        return processor;
+    }
+
+    @Bean
+    public JpaItemWriter<Book> bookImportWriter(EntityManagerFactory entityManagerFactory) {
+        return new JpaItemWriterBuilder<Book>()
+                .entityManagerFactory(entityManagerFactory)
+                .usePersist(true)
+                .build();
+    }
+}
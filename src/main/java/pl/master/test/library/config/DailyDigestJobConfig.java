@@ -0,0 +1,129 @@
+package pl.master.test.library.config;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.MailSendException;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.master.test.library.batch.ClientIdRangePartitioner;
+import pl.master.test.library.batch.ClientSubscriptionsItemReader;
+import pl.master.test.library.batch.DailyDigestMetrics;
+import pl.master.test.library.batch.DailyDigestItemWriter;
+import pl.master.test.library.batch.DailyDigestLeaseHeartbeat;
+import pl.master.test.library.batch.DigestRendererRegistry;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.model.dto.DailyDigest;
+import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.service.DigestRenderer;
+import pl.master.test.library.service.RegistrationService;
+
+import java.time.LocalDateTime;
+
+@Configuration
+public class DailyDigestJobConfig {
+
+    public static final String DAILY_DIGEST_JOB = "dailyDigestJob";
+    public static final String DAILY_DIGEST_STEP = "dailyDigestStep";
+    public static final String SINCE = "since";
+    public static final String UNTIL = "until";
+
+    @Value("${notification.batch.size}")
+    private int batchSize;
+    @Value("${notification.partitions}")
+    private int partitions;
+    @Value("${notification.retry-limit}")
+    private int retryLimit;
+    @Value("${notification.skip-limit}")
+    private int skipLimit;
+
+    @Bean
+    public Job dailyDigestJob(JobRepository jobRepository, Step dailyDigestStep, DigestRendererRegistry digestRendererRegistry,
+                              DailyDigestMetrics dailyDigestMetrics) {
+        return new JobBuilder(DAILY_DIGEST_JOB, jobRepository)
+                .listener(digestRendererRegistry)
+                .listener(dailyDigestMetrics)
+                .start(dailyDigestStep)
+                .build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor dailyDigestPartitionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(partitions);
+        executor.setMaxPoolSize(partitions);
+        executor.setThreadNamePrefix("daily-digest-");
+        return executor;
+    }
+
+    @Bean
+    public Step dailyDigestStep(JobRepository jobRepository, Step dailyDigestPartitionStep,
+                                ClientIdRangePartitioner clientIdRangePartitioner,
+                                ThreadPoolTaskExecutor dailyDigestPartitionExecutor) {
+        return new StepBuilder(DAILY_DIGEST_STEP, jobRepository)
+                .partitioner(dailyDigestPartitionStep.getName(), clientIdRangePartitioner)
+                .step(dailyDigestPartitionStep)
+                .gridSize(partitions)
+                .taskExecutor(dailyDigestPartitionExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step dailyDigestPartitionStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                         ClientSubscriptionsItemReader dailyDigestReader,
+                                         ItemProcessor<ClientSubscriptions, DailyDigest> dailyDigestProcessor,
+                                         DailyDigestItemWriter dailyDigestWriter,
+                                         DailyDigestLeaseHeartbeat dailyDigestLeaseHeartbeat) {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(100);
+        return new StepBuilder("dailyDigestPartitionStep", jobRepository)
+                .<ClientSubscriptions, DailyDigest>chunk(batchSize, transactionManager)
+                .reader(dailyDigestReader)
+                .processor(dailyDigestProcessor)
+                .writer(dailyDigestWriter)
+                .faultTolerant()
+                .processorNonTransactional()
+                .retry(MailSendException.class)
+                .retryLimit(retryLimit)
+                .backOffPolicy(backOffPolicy)
+                .skip(MailSendException.class)
+                .skipLimit(skipLimit)
+                .listener(dailyDigestWriter)
+                .listener((ChunkListener) dailyDigestLeaseHeartbeat)
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public ClientSubscriptionsItemReader dailyDigestReader(ClientRepository clientRepository,
+                                                           @Value("#{stepExecutionContext['minId']}") int minId,
+                                                           @Value("#{stepExecutionContext['maxId']}") int maxId) {
+        return new ClientSubscriptionsItemReader(clientRepository, minId, maxId, batchSize);
+    }
+
+    @Bean
+    @StepScope
+    public ItemProcessor<ClientSubscriptions, DailyDigest> dailyDigestProcessor(
+            DigestRendererRegistry digestRendererRegistry,
+            @Value("#{stepExecution.jobExecutionId}") long jobExecutionId,
+            @Value("#{jobParameters['since']}") LocalDateTime since,
+            @Value("#{jobParameters['until']}") LocalDateTime until) {
+        DigestRenderer renderer = digestRendererRegistry.get(jobExecutionId, since, until);
+        return renderer::render;
+    }
+
+    @Bean
+    @StepScope
+    public DailyDigestItemWriter dailyDigestWriter(RegistrationService registrationService) {
+        return new DailyDigestItemWriter(registrationService);
+    }
+}
@@ -1,23 +1,34 @@
 package pl.master.test.library.controller;
 
 
-import jakarta.persistence.EntityNotFoundException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import pl.master.test.library.model.Client;
-import pl.master.test.library.model.ConfirmationToken;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.master.test.library.common.JsonStreams;
 import pl.master.test.library.model.command.*;
 import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.ImportReport;
+import pl.master.test.library.model.dto.SubscriptionChangeDto;
+import pl.master.test.library.model.dto.BookImportStatusDto;
 import pl.master.test.library.model.dto.ClientDto;
-import pl.master.test.library.repository.ClientRepository;
-import pl.master.test.library.repository.ConfirmationTokenRepository;
+import pl.master.test.library.model.dto.CursorPageDto;
+import pl.master.test.library.service.BookFileImportService;
+import pl.master.test.library.service.BookImporter;
 import pl.master.test.library.service.BookService;
+import pl.master.test.library.service.CatalogueFacetService;
+import pl.master.test.library.service.ClientImporter;
 import pl.master.test.library.service.ClientService;
 
-import java.text.MessageFormat;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -28,15 +39,48 @@ import java.util.Set;
 public class LibraryController {
 
     private final BookService bookService;
+    private final BookImporter bookImporter;
+    private final BookFileImportService bookFileImportService;
+    private final CatalogueFacetService catalogueFacetService;
     private final ClientService clientService;
-    private final ClientRepository clientRepository;
-    private final ConfirmationTokenRepository confirmationTokenRepository;
+    private final ClientImporter clientImporter;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/books")
     public List<BookDto> findAllBooks() {
         return bookService.findAll();
     }
 
+    @GetMapping("/books/page")
+    public CursorPageDto<BookDto> findBooksPage(@RequestParam(defaultValue = "0") int afterId,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        return bookService.findPage(afterId, limit);
+    }
+
+    @GetMapping(value = "/books/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooksAsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.ndjson(objectMapper, bookService::streamAll));
+    }
+
+    @GetMapping(value = "/books/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooksAsJsonArray() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.jsonArray(objectMapper, bookService::streamAll));
+    }
+
+    @GetMapping("/books/facets/authors")
+    public ResponseEntity<byte[]> findAuthorFacets(WebRequest request) {
+        return facetResponse(catalogueFacetService.authors(), request);
+    }
+
+    @GetMapping("/books/facets/categories")
+    public ResponseEntity<byte[]> findCategoryFacets(WebRequest request) {
+        return facetResponse(catalogueFacetService.categories(), request);
+    }
+
     @GetMapping("/books/{id}")
     public BookDto findBookById(@PathVariable int id) {
         return bookService.findById(id);
@@ -49,11 +93,50 @@ public class LibraryController {
         return bookService.save(command);
     }
 
+    @PostMapping(value = "/books/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportReport importBooks(InputStream body) throws IOException {
+        try (MappingIterator<CreateBookCommand> commands = objectMapper.readerFor(CreateBookCommand.class).readValues(body)) {
+            return bookImporter.importBooks(commands);
+        }
+    }
+
+    @PostMapping("/books/imports")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BookImportStatusDto startBookImport(@RequestParam String file) {
+        return bookFileImportService.start(file);
+    }
+
+    @GetMapping("/books/imports/{executionId}")
+    public BookImportStatusDto findBookImport(@PathVariable long executionId) {
+        return bookFileImportService.getStatus(executionId);
+    }
+
     @GetMapping("/clients")
     public List<ClientDto> findAllClients() {
         return clientService.findAll();
     }
 
+    @GetMapping("/clients/page")
+    public CursorPageDto<ClientDto> findClientsPage(@RequestParam(defaultValue = "0") int afterId,
+                                                    @RequestParam(defaultValue = "100") int limit,
+                                                    @RequestParam(required = false) Boolean enabled) {
+        return clientService.findPage(afterId, limit, enabled);
+    }
+
+    @GetMapping(value = "/clients/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamClientsAsNdjson(@RequestParam(required = false) Boolean enabled) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(JsonStreams.<ClientDto>ndjson(objectMapper, consumer -> clientService.streamAll(enabled, consumer)));
+    }
+
+    @GetMapping(value = "/clients/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamClientsAsJsonArray(@RequestParam(required = false) Boolean enabled) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.<ClientDto>jsonArray(objectMapper, consumer -> clientService.streamAll(enabled, consumer)));
+    }
+
     @GetMapping("/clients/{id}")
     public ClientDto findClientById(@PathVariable int id) {
         return clientService.findById(id);
@@ -65,23 +148,30 @@ public class LibraryController {
         return clientService.save(command);
     }
 
+    @PostMapping(value = "/clients/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportReport registerClients(InputStream body) throws IOException {
+        try (MappingIterator<CreateClientCommand> commands = objectMapper.readerFor(CreateClientCommand.class).readValues(body)) {
+            return clientImporter.registerClients(commands);
+        }
+    }
+
     @PostMapping("/clients/{clientId}/subscriptions/categories")
-    public ClientDto subscribeToCategory(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionCategoryCommand command) {
+    public SubscriptionChangeDto subscribeToCategory(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionCategoryCommand command) {
         return clientService.subscribeToCategory(clientId, command);
     }
 
     @DeleteMapping("/clients/{clientId}/subscriptions/categories")
-    public ClientDto unsubscribeFromCategory(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionCategoryCommand command) {
+    public SubscriptionChangeDto unsubscribeFromCategory(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionCategoryCommand command) {
         return clientService.unsubscribeFromCategory(clientId, command);
     }
 
     @PostMapping("/clients/{clientId}/subscriptions/authors")
-    public ClientDto subscribeToAuthor(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionAuthorCommand command) {
+    public SubscriptionChangeDto subscribeToAuthor(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionAuthorCommand command) {
         return clientService.subscribeToAuthor(clientId, command);
     }
 
     @DeleteMapping("/clients/{clientId}/subscriptions/authors")
-    public ClientDto unsubscribeFromAuthor(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionAuthorCommand command) {
+    public SubscriptionChangeDto unsubscribeFromAuthor(@PathVariable int clientId, @RequestBody @Valid UpdateClientSubscriptionAuthorCommand command) {
         return clientService.unsubscribeFromAuthor(clientId, command);
 
     }
@@ -100,13 +190,21 @@ public class LibraryController {
 
     @GetMapping("/confirm")
     public ResponseEntity confirm(@RequestParam("token") String token) {
-        ConfirmationToken optToken = confirmationTokenRepository.findByToken(token).orElseThrow(
-                () -> new EntityNotFoundException(MessageFormat
-                        .format("Token not found or invalid: {0}", token)));
-        Client client = optToken.getClient();
-        client.setEnabled(true);
-        clientRepository.save(client);
-        confirmationTokenRepository.delete(optToken);
+        clientService.confirm(token);
         return ResponseEntity.ok("Email confirmed!");
     }
+
+    private static ResponseEntity<byte[]> facetResponse(CatalogueFacetService.Snapshot snapshot, WebRequest request) {
+        if (request.checkNotModified(snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
+    }
 }
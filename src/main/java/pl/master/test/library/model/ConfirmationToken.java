@@ -4,8 +4,14 @@ package pl.master.test.library.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.Arrays;
+import java.util.Base64;
 
 @AllArgsConstructor
 @RequiredArgsConstructor
@@ -15,15 +21,38 @@ import java.util.UUID;
 @Entity
 public class ConfirmationToken {
 
+    private static final int TOKEN_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "confirmation_token_seq")
+    @SequenceGenerator(name = "confirmation_token_seq", sequenceName = "confirmation_token_seq", allocationSize = 50)
     private int id;
+    private byte[] tokenHash;
+    @Transient
     private String token;
-    @ManyToOne
+    private LocalDateTime expiresAt;
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false, name = "client_id")
     private Client client;
-    @PrePersist
-    protected void onCreate() {
-        this.token = UUID.randomUUID().toString();
+
+    public static ConfirmationToken forClient(Client client, Duration ttl) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(raw);
+        ConfirmationToken confirmationToken = new ConfirmationToken();
+        confirmationToken.setToken(Base64.getUrlEncoder().withoutPadding().encodeToString(raw));
+        confirmationToken.setTokenHash(hash(confirmationToken.getToken()));
+        confirmationToken.setExpiresAt(LocalDateTime.now().plus(ttl));
+        confirmationToken.setClient(client);
+        return confirmationToken;
+    }
+
+    public static byte[] hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Arrays.copyOf(digest, TOKEN_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,22 @@
+package pl.master.test.library.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+public class NotificationWatermark {
+
+    @Id
+    private String name;
+    private LocalDateTime processedUntil;
+}
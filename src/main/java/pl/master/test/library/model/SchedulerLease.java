@@ -0,0 +1,23 @@
+package pl.master.test.library.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+public class SchedulerLease {
+
+    @Id
+    private String name;
+    private String owner;
+    private LocalDateTime lockedUntil;
+}
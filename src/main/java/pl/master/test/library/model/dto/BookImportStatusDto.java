@@ -0,0 +1,37 @@
+package pl.master.test.library.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import pl.master.test.library.config.BookImportJobConfig;
+
+@Data
+@AllArgsConstructor
+public class BookImportStatusDto {
+
+    private long executionId;
+    private String file;
+    private BatchStatus status;
+    private long readCount;
+    private long writeCount;
+    private long filterCount;
+    private long skipCount;
+
+    public static BookImportStatusDto fromExecution(JobExecution execution) {
+        long read = 0;
+        long write = 0;
+        long filter = 0;
+        long skip = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            read += step.getReadCount();
+            write += step.getWriteCount();
+            filter += step.getFilterCount();
+            skip += step.getSkipCount();
+        }
+        return new BookImportStatusDto(execution.getId(),
+                execution.getJobParameters().getString(BookImportJobConfig.FILE),
+                execution.getStatus(), read, write, filter, skip);
+    }
+}
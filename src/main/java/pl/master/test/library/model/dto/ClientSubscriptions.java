@@ -0,0 +1,21 @@
+package pl.master.test.library.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class ClientSubscriptions {
+
+    private final int clientId;
+    private final String email;
+    private final Set<String> subscribedAuthors;
+    private final Set<String> subscribedCategories;
+
+    public ClientSubscriptions(int clientId, String email) {
+        this(clientId, email, new HashSet<>(), new HashSet<>());
+    }
+}
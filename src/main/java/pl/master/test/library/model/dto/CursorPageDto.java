@@ -0,0 +1,29 @@
+package pl.master.test.library.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+@Getter
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final List<T> items;
+    private final Integer nextAfterId;
+
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException(MessageFormat.format("Limit must be between 1 and {0}", MAX_LIMIT));
+        }
+    }
+
+    public static <T> CursorPageDto<T> of(List<T> items, int limit, ToIntFunction<T> idExtractor) {
+        Integer nextAfterId = items.size() < limit ? null : idExtractor.applyAsInt(items.get(items.size() - 1));
+        return new CursorPageDto<>(items, nextAfterId);
+    }
+}
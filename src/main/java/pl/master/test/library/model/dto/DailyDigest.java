@@ -0,0 +1,12 @@
+package pl.master.test.library.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DailyDigest {
+
+    private String email;
+    private String text;
+}
@@ -0,0 +1,18 @@
+package pl.master.test.library.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FacetCountDto {
+    private String name;
+    private long count;
+    @JsonIgnore
+    private int lastBookId;
+
+    public FacetCountDto(String name, long count) {
+        this(name, count, 0);
+    }
+}
@@ -0,0 +1,38 @@
+package pl.master.test.library.model.dto;
+
+import lombok.Getter;
+import lombok.Value;
+import pl.master.test.library.common.ValidationErrorDto.ViolationInfo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Getter
+public class ImportReport {
+
+    private int imported;
+    private int rejected;
+    private final List<RowResult> rows = new ArrayList<>();
+
+    public void addImported(int row, int id) {
+        imported++;
+        rows.add(new RowResult(row, id, List.of()));
+    }
+
+    public void addRejected(int row, List<ViolationInfo> violations) {
+        rejected++;
+        rows.add(new RowResult(row, null, violations));
+    }
+
+    public void sortRows() {
+        rows.sort(Comparator.comparingInt(RowResult::getRow));
+    }
+
+    @Value
+    public static class RowResult {
+        int row;
+        Integer id;
+        List<ViolationInfo> violations;
+    }
+}
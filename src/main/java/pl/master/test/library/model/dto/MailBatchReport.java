@@ -0,0 +1,34 @@
+package pl.master.test.library.model.dto;
+
+import lombok.Getter;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.*;
+
+@Getter
+public class MailBatchReport {
+
+    private final List<SimpleMailMessage> delivered = new ArrayList<>();
+    private final Map<SimpleMailMessage, Exception> failed = new LinkedHashMap<>();
+
+    public void addDelivered(SimpleMailMessage message) {
+        delivered.add(message);
+    }
+
+    public void addFailed(SimpleMailMessage message, Exception cause) {
+        failed.put(message, cause);
+    }
+
+    public void merge(MailBatchReport other) {
+        delivered.addAll(other.delivered);
+        failed.putAll(other.failed);
+    }
+
+    public boolean isDelivered(SimpleMailMessage message) {
+        return !failed.containsKey(message) && delivered.contains(message);
+    }
+
+    public boolean hasFailures() {
+        return !failed.isEmpty();
+    }
+}
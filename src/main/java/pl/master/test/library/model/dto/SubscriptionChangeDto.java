@@ -0,0 +1,12 @@
+package pl.master.test.library.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SubscriptionChangeDto {
+    private int clientId;
+    private String subscription;
+    private boolean changed;
+}
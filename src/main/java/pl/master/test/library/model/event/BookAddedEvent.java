@@ -0,0 +1,21 @@
+package pl.master.test.library.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.master.test.library.model.Book;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAddedEvent {
+
+    private int bookId;
+    private String author;
+    private String title;
+    private String category;
+
+    public static BookAddedEvent fromEntity(Book book) {
+        return new BookAddedEvent(book.getId(), book.getAuthor(), book.getTitle(), book.getCategory());
+    }
+}
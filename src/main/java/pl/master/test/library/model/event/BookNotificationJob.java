@@ -0,0 +1,16 @@
+package pl.master.test.library.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookNotificationJob {
+
+    private String email;
+    private String author;
+    private String title;
+    private String category;
+}
@@ -0,0 +1,21 @@
+package pl.master.test.library.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionChangedEvent {
+
+    private String origin;
+    private int clientId;
+    private Kind kind;
+    private String name;
+    private boolean subscribed;
+
+    public enum Kind {
+        AUTHOR, CATEGORY
+    }
+}
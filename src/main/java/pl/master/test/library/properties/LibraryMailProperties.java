@@ -0,0 +1,35 @@
+package pl.master.test.library.properties;
+
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "library.mail")
+@Getter
+@Setter
+public class LibraryMailProperties {
+
+    private Outbox outbox = new Outbox();
+    private Bulk bulk = new Bulk();
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        private int workers = 4;
+        private int capacity = 1000;
+        private int messagesPerConnection = 50;
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofSeconds(1);
+        private Duration offerTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        private int connections = 4;
+        private int messagesPerConnection = 100;
+    }
+}
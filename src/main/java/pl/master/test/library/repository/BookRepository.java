@@ -1,20 +1,25 @@
 package pl.master.test.library.repository;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.Client;
 import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.FacetCountDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Integer> {
@@ -28,15 +33,40 @@ public interface BookRepository extends JpaRepository<Book, Integer> {
     @Query("SELECT DISTINCT b.author FROM Book b")
     Set<String> findDistinctAuthors();
 
+    @Query("SELECT NEW pl.master.test.library.model.dto.FacetCountDto(b.author, COUNT(b), MAX(b.id)) FROM Book b " +
+            "WHERE b.author IS NOT NULL GROUP BY b.author")
+    List<FacetCountDto> countBooksByAuthor();
+
+    @Query("SELECT NEW pl.master.test.library.model.dto.FacetCountDto(b.category, COUNT(b), MAX(b.id)) FROM Book b " +
+            "WHERE b.category IS NOT NULL GROUP BY b.category")
+    List<FacetCountDto> countBooksByCategory();
+
     @Query("SELECT DISTINCT c.email FROM Client c WHERE (:author MEMBER OF c.subscribedAuthors OR :category MEMBER OF c.subscribedCategories) AND c.enabled = true")
     Set<String> findEmailsOfClientsSubscribedToAuthorOrCategory(@Param("author") String author, @Param("category") String category);
 
     @Query("SELECT NEW pl.master.test.library.model.dto.BookDto(b.id, b.author, b.title, b.category) FROM Book b")
     List<BookDto> findAllBooksAsDto();
 
+    @Query("SELECT NEW pl.master.test.library.model.dto.BookDto(b.id, b.author, b.title, b.category) FROM Book b " +
+            "WHERE b.id > :afterId ORDER BY b.id")
+    List<BookDto> findBooksAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT NEW pl.master.test.library.model.dto.BookDto(b.id, b.author, b.title, b.category) FROM Book b ORDER BY b.id")
+    Stream<BookDto> streamAllBooksAsDto();
+
     @Query("SELECT b FROM Book b WHERE b.createdDate > :date")
     Page<Book> findAllByCreatedDateAfter(LocalDateTime date, Pageable pageable);
 
+    @Query("SELECT b FROM Book b WHERE b.createdDate > :since AND b.createdDate <= :until ORDER BY b.id")
+    List<Book> findAllCreatedBetween(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    @Query("SELECT COUNT(b) > 0 FROM Book b WHERE b.createdDate > :since AND b.createdDate <= :until")
+    boolean existsCreatedBetween(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
 
     @Query("SELECT b FROM Book b WHERE " +
             "(b.author IN :authors OR b.category IN :categories) " +
@@ -1,26 +1,136 @@
 package pl.master.test.library.repository;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pl.master.test.library.model.Client;
 import pl.master.test.library.model.dto.ClientDto;
+import pl.master.test.library.model.dto.ClientSubscriptions;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Integer> {
     @Query(value = "SELECT * FROM users WHERE email = ?", nativeQuery = true)
     Optional<Client> findByEmail(String email);
 
+    @Query("SELECT c.email FROM Client c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT NEW pl.master.test.library.model.dto.ClientDto(c.id, c.firstName, c.lastName, c.email, c.enabled) FROM Client c " +
+            "WHERE c.id = :id")
+    Optional<ClientDto> findClientDtoById(@Param("id") int id);
+
+    @Transactional
+    @Query(value = "SELECT id FROM FINAL TABLE (UPDATE client SET enabled = TRUE WHERE id = " +
+            "(SELECT client_id FROM confirmation_token WHERE token_hash = :tokenHash AND expires_at > :now))", nativeQuery = true)
+    Optional<Integer> enableByConfirmationToken(@Param("tokenHash") byte[] tokenHash, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO client_subscription_category (client_id, category_name) SELECT :clientId, :category " +
+            "WHERE NOT EXISTS (SELECT 1 FROM client_subscription_category WHERE client_id = :clientId AND category_name = :category)",
+            nativeQuery = true)
+    int addSubscribedCategory(@Param("clientId") int clientId, @Param("category") String category);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM client_subscription_category WHERE client_id = :clientId AND category_name = :category",
+            nativeQuery = true)
+    int removeSubscribedCategory(@Param("clientId") int clientId, @Param("category") String category);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO client_subscription_author (client_id, author_name) SELECT :clientId, :author " +
+            "WHERE NOT EXISTS (SELECT 1 FROM client_subscription_author WHERE client_id = :clientId AND author_name = :author)",
+            nativeQuery = true)
+    int addSubscribedAuthor(@Param("clientId") int clientId, @Param("author") String author);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM client_subscription_author WHERE client_id = :clientId AND author_name = :author",
+            nativeQuery = true)
+    int removeSubscribedAuthor(@Param("clientId") int clientId, @Param("author") String author);
+
     @Query("SELECT NEW pl.master.test.library.model.dto.ClientDto(c.id, c.firstName, c.lastName, c.email, c.enabled) FROM Client c")
     List<ClientDto> findAllClientsAsDto();
 
+    @Query("SELECT NEW pl.master.test.library.model.dto.ClientDto(c.id, c.firstName, c.lastName, c.email, c.enabled) FROM Client c " +
+            "WHERE c.id > :afterId AND (:enabled IS NULL OR c.enabled = :enabled) ORDER BY c.id")
+    List<ClientDto> findClientsAfter(@Param("afterId") int afterId, @Param("enabled") Boolean enabled, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT NEW pl.master.test.library.model.dto.ClientDto(c.id, c.firstName, c.lastName, c.email, c.enabled) FROM Client c " +
+            "WHERE :enabled IS NULL OR c.enabled = :enabled ORDER BY c.id")
+    Stream<ClientDto> streamClientsAsDto(@Param("enabled") Boolean enabled);
+
+
+    @Query("SELECT NEW pl.master.test.library.model.dto.ClientSubscriptions(c.id, c.email) FROM Client c " +
+            "WHERE c.id > :lastSeenId AND c.id <= :maxId AND c.enabled = true " +
+            "AND (c.subscribedAuthors IS NOT EMPTY OR c.subscribedCategories IS NOT EMPTY) ORDER BY c.id")
+    List<ClientSubscriptions> findNextSubscribedClients(@Param("lastSeenId") int lastSeenId, @Param("maxId") int maxId,
+                                                        Pageable pageable);
+
+    @Query("SELECT MIN(c.id) FROM Client c WHERE c.enabled = true")
+    Optional<Integer> findMinEnabledClientId();
+
+    @Query("SELECT MAX(c.id) FROM Client c WHERE c.enabled = true")
+    Optional<Integer> findMaxEnabledClientId();
+
+    @Query("SELECT c.email FROM Client c WHERE c.id IN :clientIds AND c.enabled = true " +
+            "AND (:author MEMBER OF c.subscribedAuthors OR :category MEMBER OF c.subscribedCategories)")
+    Set<String> findEnabledSubscriberEmails(@Param("clientIds") Collection<Integer> clientIds,
+                                            @Param("author") String author, @Param("category") String category);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c.id, a FROM Client c JOIN c.subscribedAuthors a ORDER BY c.id")
+    Stream<Object[]> streamAllSubscribedAuthors();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c.id, cat FROM Client c JOIN c.subscribedCategories cat ORDER BY c.id")
+    Stream<Object[]> streamAllSubscribedCategories();
+
+    @Query("SELECT c.id, a FROM Client c JOIN c.subscribedAuthors a WHERE c.id IN :clientIds")
+    List<Object[]> findSubscribedAuthorsOf(@Param("clientIds") Collection<Integer> clientIds);
+
+    @Query("SELECT c.id, cat FROM Client c JOIN c.subscribedCategories cat WHERE c.id IN :clientIds")
+    List<Object[]> findSubscribedCategoriesOf(@Param("clientIds") Collection<Integer> clientIds);
+
+    default List<ClientSubscriptions> findNextSubscriptionsBatch(int lastSeenId, int batchSize) {
+        return findNextSubscriptionsBatch(lastSeenId, Integer.MAX_VALUE, batchSize);
+    }
 
-    @Query("SELECT c FROM Client c WHERE c.enabled = true AND (SIZE(c.subscribedAuthors) > 0 OR SIZE(c.subscribedCategories) > 0)")
-    Page<Client> findAllByEnabledTrueAndSubscriptionsNotEmpty(Pageable pageable);
+    default List<ClientSubscriptions> findNextSubscriptionsBatch(int lastSeenId, int maxId, int batchSize) {
+        List<ClientSubscriptions> clients = findNextSubscribedClients(lastSeenId, maxId, PageRequest.ofSize(batchSize));
+        if (clients.isEmpty()) {
+            return clients;
+        }
+        Map<Integer, ClientSubscriptions> byId = clients.stream()
+                .collect(Collectors.toMap(ClientSubscriptions::getClientId, Function.identity()));
+        for (Object[] row : findSubscribedAuthorsOf(byId.keySet())) {
+            byId.get((Integer) row[0]).getSubscribedAuthors().add((String) row[1]);
+        }
+        for (Object[] row : findSubscribedCategoriesOf(byId.keySet())) {
+            byId.get((Integer) row[0]).getSubscribedCategories().add((String) row[1]);
+        }
+        return clients;
+    }
 
 }
@@ -1,16 +1,31 @@
 package pl.master.test.library.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pl.master.test.library.model.ConfirmationToken;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface ConfirmationTokenRepository extends JpaRepository<ConfirmationToken, Integer> {
 
-    @Query("SELECT ct FROM ConfirmationToken ct WHERE ct.token = ?1")
-    Optional<ConfirmationToken> findByToken(String token);
+    @Query("SELECT ct FROM ConfirmationToken ct WHERE ct.tokenHash = ?1")
+    Optional<ConfirmationToken> findByTokenHash(byte[] tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ConfirmationToken ct WHERE ct.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM confirmation_token WHERE id IN " +
+            "(SELECT id FROM confirmation_token WHERE expires_at <= :now ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
 
 }
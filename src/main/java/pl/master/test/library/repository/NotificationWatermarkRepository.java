@@ -0,0 +1,9 @@
+package pl.master.test.library.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pl.master.test.library.model.NotificationWatermark;
+
+@Repository
+public interface NotificationWatermarkRepository extends JpaRepository<NotificationWatermark, String> {
+}
@@ -0,0 +1,109 @@
+package pl.master.test.library.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.master.test.library.batch.AbandonedJobExecutions;
+import pl.master.test.library.config.BookImportJobConfig;
+import pl.master.test.library.model.dto.BookImportStatusDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+public class BookFileImportService {
+
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private final Job bookImportJob;
+    private final JobLauncher bookImportJobLauncher;
+    private final AbandonedJobExecutions abandonedJobExecutions;
+    private final Path importDirectory;
+    private final Duration abandonAfter;
+
+    public BookFileImportService(JobRepository jobRepository, JobExplorer jobExplorer, Job bookImportJob,
+                                 JobLauncher bookImportJobLauncher, AbandonedJobExecutions abandonedJobExecutions,
+                                 @Value("${book.import.directory}") Path importDirectory,
+                                 @Value("${book.import.abandon-after}") Duration abandonAfter) {
+        this.jobRepository = jobRepository;
+        this.jobExplorer = jobExplorer;
+        this.bookImportJob = bookImportJob;
+        this.bookImportJobLauncher = bookImportJobLauncher;
+        this.abandonedJobExecutions = abandonedJobExecutions;
+        this.importDirectory = importDirectory.toAbsolutePath().normalize();
+        this.abandonAfter = abandonAfter;
+    }
+
+    public synchronized BookImportStatusDto start(String fileName) {
+        Path file = resolve(fileName);
+        JobParameters parameters = parameters(file);
+        failAbandonedExecution(parameters);
+        try {
+            return BookImportStatusDto.fromExecution(bookImportJobLauncher.run(bookImportJob, parameters));
+        } catch (JobInstanceAlreadyCompleteException e) {
+            throw new IllegalArgumentException(MessageFormat.format("File {0} was already imported", fileName));
+        } catch (JobExecutionException e) {
+            throw new IllegalArgumentException(MessageFormat.format("Import of {0} could not be started: {1}",
+                    fileName, e.getMessage()));
+        }
+    }
+
+    public BookImportStatusDto getStatus(long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null || !BookImportJobConfig.BOOK_IMPORT_JOB.equals(execution.getJobInstance().getJobName())) {
+            throw new EntityNotFoundException(MessageFormat.format("Import with id={0} not found", executionId));
+        }
+        return BookImportStatusDto.fromExecution(execution);
+    }
+
+    private Path resolve(String fileName) {
+        Path file = importDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(importDirectory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException(MessageFormat.format("File {0} not found in the import directory", fileName));
+        }
+        return file;
+    }
+
+    private static JobParameters parameters(Path file) {
+        try {
+            return new JobParametersBuilder()
+                    .addString(BookImportJobConfig.FILE, file.toString())
+                    .addLong(BookImportJobConfig.FILE_SIZE, Files.size(file))
+                    .addLong(BookImportJobConfig.FILE_LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis())
+                    .toJobParameters();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void failAbandonedExecution(JobParameters parameters) {
+        JobExecution last = jobRepository.getLastJobExecution(bookImportJob.getName(), parameters);
+        if (last == null || !last.getStatus().isRunning()
+                || lastHeartbeat(last).isAfter(LocalDateTime.now().minus(abandonAfter))) {
+            return;
+        }
+        abandonedJobExecutions.markFailed(last);
+    }
+
+    private static LocalDateTime lastHeartbeat(JobExecution execution) {
+        return Stream.concat(
+                        Stream.of(execution.getCreateTime(), execution.getStartTime(), execution.getLastUpdated()),
+                        execution.getStepExecutions().stream().map(StepExecution::getLastUpdated))
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(LocalDateTime.MIN);
+    }
+}
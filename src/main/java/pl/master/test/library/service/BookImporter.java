@@ -0,0 +1,56 @@
+package pl.master.test.library.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.master.test.library.common.TransactionHooks;
+import pl.master.test.library.common.ValidationErrorDto.ViolationInfo;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.command.CreateBookCommand;
+import pl.master.test.library.model.dto.ImportReport;
+import pl.master.test.library.repository.BookRepository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class BookImporter extends ChunkedImporter<CreateBookCommand, Book> {
+
+    private final BookRepository bookRepository;
+    private final CatalogueFacetService catalogueFacetService;
+
+    public BookImporter(BookRepository bookRepository, CatalogueFacetService catalogueFacetService,
+                        EntityManager entityManager,
+                        TransactionTemplate transactionTemplate, Validator validator,
+                        @Value("${book.import.chunk-size}") int chunkSize) {
+        super(entityManager, transactionTemplate, validator, chunkSize);
+        this.bookRepository = bookRepository;
+        this.catalogueFacetService = catalogueFacetService;
+    }
+
+    public ImportReport importBooks(Iterator<CreateBookCommand> commands) {
+        return importAll(commands);
+    }
+
+    @Override
+    protected Book toEntity(CreateBookCommand command) {
+        return command.toEntity();
+    }
+
+    @Override
+    protected int idOf(Book book) {
+        return book.getId();
+    }
+
+    @Override
+    protected Map<Integer, ViolationInfo> saveChunk(List<Book> books) {
+        bookRepository.saveAll(books);
+        List<Book> saved = List.copyOf(books);
+        TransactionHooks.afterCommit(() -> saved.forEach(
+                book -> catalogueFacetService.bookAdded(book.getId(), book.getAuthor(), book.getCategory())));
+        return Map.of();
+    }
+}
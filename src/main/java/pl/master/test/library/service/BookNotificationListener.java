@@ -0,0 +1,44 @@
+package pl.master.test.library.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.config.AmqpConfig;
+import pl.master.test.library.model.event.BookAddedEvent;
+import pl.master.test.library.model.event.BookNotificationJob;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class BookNotificationListener {
+
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+
+    private final SubscriberIndex subscriberIndex;
+    private final ClientRepository clientRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final RegistrationService registrationService;
+
+    @RabbitListener(queues = AmqpConfig.BOOK_ADDED_QUEUE)
+    public void onBookAdded(BookAddedEvent event) {
+        int[] clientIds = subscriberIndex.subscribersOf(event.getAuthor(), event.getCategory());
+        for (int from = 0; from < clientIds.length; from += EMAIL_LOOKUP_CHUNK) {
+            List<Integer> chunk = Arrays.stream(clientIds, from, Math.min(from + EMAIL_LOOKUP_CHUNK, clientIds.length))
+                    .boxed()
+                    .toList();
+            for (String email : clientRepository.findEnabledSubscriberEmails(chunk, event.getAuthor(), event.getCategory())) {
+                rabbitTemplate.convertAndSend(AmqpConfig.BOOK_NOTIFICATION_QUEUE, new BookNotificationJob(
+                        email, event.getAuthor(), event.getTitle(), event.getCategory()));
+            }
+        }
+    }
+
+    @RabbitListener(queues = AmqpConfig.BOOK_NOTIFICATION_QUEUE)
+    public void onBookNotification(BookNotificationJob job) {
+        registrationService.newBookAdded(job.getEmail(), job.getTitle(), job.getAuthor(), job.getCategory());
+    }
+}
@@ -3,13 +3,19 @@ package pl.master.test.library.service;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.command.CreateBookCommand;
 import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.CursorPageDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookService {
 
     List<BookDto> findAll();
 
+    CursorPageDto<BookDto> findPage(int afterId, int limit);
+
+    void streamAll(Consumer<BookDto> consumer);
+
     BookDto findById(int id);
 
     BookDto save(CreateBookCommand command);
@@ -1,30 +1,67 @@
 package pl.master.test.library.service;
 
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.master.test.library.common.TransactionHooks;
+import pl.master.test.library.config.MetricsConfig;
+import pl.master.test.library.config.AmqpConfig;
+import pl.master.test.library.config.CacheConfig;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.command.CreateBookCommand;
 import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.CursorPageDto;
+import pl.master.test.library.model.event.BookAddedEvent;
 import pl.master.test.library.repository.BookRepository;
 
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService{
 
     private final BookRepository bookRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final CacheManager cacheManager;
+    private final CatalogueFacetService catalogueFacetService;
+
     @Override
     public List<BookDto> findAll() {
         return bookRepository.findAllBooksAsDto();
     }
 
     @Override
+    public CursorPageDto<BookDto> findPage(int afterId, int limit) {
+        CursorPageDto.checkLimit(limit);
+        List<BookDto> books = bookRepository.findBooksAfter(afterId, PageRequest.ofSize(limit));
+        return CursorPageDto.of(books, limit, BookDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<BookDto> consumer) {
+        try (Stream<BookDto> books = bookRepository.streamAllBooksAsDto()) {
+            books.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Cacheable(CacheConfig.BOOKS_CACHE)
     public BookDto findById(int id) {
         Book book = getBookById(id);
         return BookDto.fromEntity(book);
@@ -38,7 +75,29 @@ public class BookServiceImpl implements BookService{
         }
         Book book = command.toEntity();
         bookRepository.save(book);
-        return BookDto.fromEntity(book);
+        BookDto bookDto = BookDto.fromEntity(book);
+        BookAddedEvent event = BookAddedEvent.fromEntity(book);
+        TransactionHooks.afterCommit(() -> {
+            cacheBook(bookDto);
+            catalogueFacetService.bookAdded(bookDto.getId(), bookDto.getAuthor(), bookDto.getCategory());
+            publishBookAdded(event);
+        });
+        return bookDto;
+    }
+
+    private void cacheBook(BookDto bookDto) {
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (books != null) {
+            books.put(bookDto.getId(), bookDto);
+        }
+    }
+
+    private void publishBookAdded(BookAddedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(AmqpConfig.BOOK_ADDED_QUEUE, event);
+        } catch (AmqpException e) {
+            log.warn("Could not publish book added event for book id={}", event.getBookId(), e);
+        }
     }
 
     @Override
@@ -0,0 +1,143 @@
+package pl.master.test.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import pl.master.test.library.model.dto.FacetCountDto;
+import pl.master.test.library.repository.BookRepository;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class CatalogueFacetService implements JobExecutionListener {
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+
+    private final Facet authors = new Facet();
+    private final Facet categories = new Facet();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${catalogue.facets.refresh-interval}",
+            initialDelayString = "${catalogue.facets.refresh-interval}")
+    public synchronized void reload() {
+        authors.beginReload();
+        categories.beginReload();
+        authors.completeReload(bookRepository.countBooksByAuthor());
+        categories.completeReload(bookRepository.countBooksByCategory());
+    }
+
+    public void bookAdded(int bookId, String author, String category) {
+        authors.increment(bookId, author);
+        categories.increment(bookId, category);
+    }
+
+    public Snapshot authors() {
+        return authors.snapshot();
+    }
+
+    public Snapshot categories() {
+        return categories.snapshot();
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        reload();
+    }
+
+    public record Snapshot(long version, String etag, byte[] json) {
+    }
+
+    private record Added(int bookId, String name) {
+    }
+
+    private class Facet {
+
+        private final Object lock = new Object();
+        private Map<String, Long> counts = new HashMap<>();
+        private List<Added> addedDuringReload;
+        private volatile long version;
+        private volatile Snapshot snapshot;
+
+        void beginReload() {
+            synchronized (lock) {
+                addedDuringReload = new ArrayList<>();
+            }
+        }
+
+        void completeReload(List<FacetCountDto> rows) {
+            Map<String, Long> reloaded = new HashMap<>();
+            int lastCountedBookId = 0;
+            for (FacetCountDto row : rows) {
+                reloaded.merge(row.getName(), row.getCount(), Long::sum);
+                lastCountedBookId = Math.max(lastCountedBookId, row.getLastBookId());
+            }
+            synchronized (lock) {
+                if (addedDuringReload != null) {
+                    for (Added added : addedDuringReload) {
+                        if (added.bookId() > lastCountedBookId) {
+                            reloaded.merge(added.name(), 1L, Long::sum);
+                        }
+                    }
+                    addedDuringReload = null;
+                }
+                counts = reloaded;
+                version++;
+            }
+        }
+
+        void increment(int bookId, String name) {
+            if (name == null) {
+                return;
+            }
+            synchronized (lock) {
+                counts.merge(name, 1L, Long::sum);
+                if (addedDuringReload != null) {
+                    addedDuringReload.add(new Added(bookId, name));
+                }
+                version++;
+            }
+        }
+
+        Snapshot snapshot() {
+            Snapshot cached = snapshot;
+            if (cached != null && cached.version() == version) {
+                return cached;
+            }
+            long renderedVersion;
+            List<FacetCountDto> rows;
+            synchronized (lock) {
+                renderedVersion = version;
+                rows = counts.entrySet().stream()
+                        .map(entry -> new FacetCountDto(entry.getKey(), entry.getValue()))
+                        .toList();
+            }
+            Snapshot rendered = render(renderedVersion, rows);
+            synchronized (lock) {
+                if (snapshot == null || snapshot.version() < renderedVersion) {
+                    snapshot = rendered;
+                }
+                return snapshot;
+            }
+        }
+
+        private Snapshot render(long renderedVersion, List<FacetCountDto> rows) {
+            List<FacetCountDto> sorted = rows.stream()
+                    .sorted(Comparator.comparing(FacetCountDto::getName))
+                    .toList();
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(sorted);
+                return new Snapshot(renderedVersion, "\"" + DigestUtils.md5DigestAsHex(json) + "\"", json);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not render catalogue facets", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package pl.master.test.library.service;
+
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.master.test.library.common.ValidationErrorDto.ViolationInfo;
+import pl.master.test.library.model.dto.ImportReport;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+public abstract class ChunkedImporter<C, E> {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int chunkSize;
+
+    protected ChunkedImporter(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                              Validator validator, int chunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    protected abstract E toEntity(C command);
+
+    protected abstract int idOf(E entity);
+
+    /**
+     * Persists one chunk inside its transaction and returns the violations of the entities
+     * that were left out, keyed by their index in the chunk.
+     */
+    protected abstract Map<Integer, ViolationInfo> saveChunk(List<E> entities);
+
+    protected ImportReport importAll(Iterator<C> commands) {
+        ImportReport report = new ImportReport();
+        List<E> entities = new ArrayList<>(chunkSize);
+        List<Integer> rows = new ArrayList<>(chunkSize);
+        int row = 0;
+        while (hasNext(commands, row + 1, report)) {
+            row++;
+            C command;
+            try {
+                command = commands.next();
+            } catch (RuntimeJsonMappingException e) {
+                report.addRejected(row, List.of(new ViolationInfo("row", "INVALID_JSON")));
+                continue;
+            } catch (RuntimeException e) {
+                rejectMalformed(row, report, e);
+                break;
+            }
+            List<ViolationInfo> violations = validate(command);
+            if (!violations.isEmpty()) {
+                report.addRejected(row, violations);
+                continue;
+            }
+            entities.add(toEntity(command));
+            rows.add(row);
+            if (entities.size() == chunkSize) {
+                writeChunk(entities, rows, report);
+            }
+        }
+        writeChunk(entities, rows, report);
+        report.sortRows();
+        return report;
+    }
+
+    private boolean hasNext(Iterator<C> commands, int row, ImportReport report) {
+        try {
+            return commands.hasNext();
+        } catch (RuntimeException e) {
+            rejectMalformed(row, report, e);
+            return false;
+        }
+    }
+
+    private void rejectMalformed(int row, ImportReport report, RuntimeException cause) {
+        log.warn("Stopping import at row {}, the input is not valid JSON", row, cause);
+        report.addRejected(row, List.of(new ViolationInfo("row", "MALFORMED_JSON")));
+    }
+
+    private List<ViolationInfo> validate(C command) {
+        if (command == null) {
+            return List.of(new ViolationInfo("row", "NULL_VALUE"));
+        }
+        Set<ConstraintViolation<C>> violations = validator.validate(command);
+        return violations.stream()
+                .map(violation -> new ViolationInfo(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+    }
+
+    private void writeChunk(List<E> entities, List<Integer> rows, ImportReport report) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Integer, ViolationInfo> rejected = transactionTemplate.execute(status -> {
+                Map<Integer, ViolationInfo> violations = saveChunk(entities);
+                entityManager.flush();
+                entityManager.clear();
+                return violations;
+            });
+            for (int i = 0; i < entities.size(); i++) {
+                ViolationInfo violation = rejected.get(i);
+                if (violation == null) {
+                    report.addImported(rows.get(i), idOf(entities.get(i)));
+                } else {
+                    report.addRejected(rows.get(i), List.of(violation));
+                }
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            log.error("Could not write {} imported row(s)", entities.size(), e);
+            rows.forEach(row -> report.addRejected(row, List.of(new ViolationInfo("row", "NOT_SAVED"))));
+        }
+        entities.clear();
+        rows.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package pl.master.test.library.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Set of client ids kept as a sorted int array while sparse and as a bitmap once the ids are dense enough for the
+ * bitmap (one bit per id up to the highest one) to be the smaller of the two.
+ */
+class ClientIdSet {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private BitSet bits;
+    private int size;
+
+    void add(int clientId) {
+        if (bits != null) {
+            if (!bits.get(clientId)) {
+                bits.set(clientId);
+                size++;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, clientId);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = clientId;
+        size++;
+        if (size > bitmapThreshold(ids[size - 1])) {
+            toBitmap();
+        }
+    }
+
+    void remove(int clientId) {
+        if (bits != null) {
+            if (bits.get(clientId)) {
+                bits.clear(clientId);
+                size--;
+                if (size < bitmapThreshold(bits.length()) / 2) {
+                    toArray(bits.stream().toArray());
+                }
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, clientId);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    int[] toArray() {
+        return bits != null ? bits.stream().toArray() : Arrays.copyOf(ids, size);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isBitmap() {
+        return bits != null;
+    }
+
+    private static int bitmapThreshold(int maxId) {
+        return maxId / Integer.SIZE;
+    }
+
+    private void toBitmap() {
+        bits = new BitSet(ids[size - 1] + 1);
+        for (int i = 0; i < size; i++) {
+            bits.set(ids[i]);
+        }
+        ids = null;
+    }
+
+    private void toArray(int[] remaining) {
+        ids = remaining.length > 0 ? remaining : new int[INITIAL_CAPACITY];
+        bits = null;
+    }
+}
@@ -0,0 +1,78 @@
+package pl.master.test.library.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.master.test.library.common.TransactionHooks;
+import pl.master.test.library.common.ValidationErrorDto.ViolationInfo;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.ConfirmationToken;
+import pl.master.test.library.model.command.CreateClientCommand;
+import pl.master.test.library.model.dto.ImportReport;
+import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.repository.ConfirmationTokenRepository;
+
+import java.time.Duration;
+import java.util.*;
+
+@Service
+public class ClientImporter extends ChunkedImporter<CreateClientCommand, Client> {
+
+    private static final ViolationInfo EMAIL_TAKEN = new ViolationInfo("email", "ALREADY_REGISTERED");
+
+    private final ClientRepository clientRepository;
+    private final ConfirmationTokenRepository confirmationTokenRepository;
+    private final RegistrationService registrationService;
+    private final Duration confirmationTokenTtl;
+
+    public ClientImporter(ClientRepository clientRepository, ConfirmationTokenRepository confirmationTokenRepository,
+                          RegistrationService registrationService, EntityManager entityManager,
+                          TransactionTemplate transactionTemplate, Validator validator,
+                          @Value("${client.import.chunk-size}") int chunkSize,
+                          @Value("${confirmation.token.ttl}") Duration confirmationTokenTtl) {
+        super(entityManager, transactionTemplate, validator, chunkSize);
+        this.clientRepository = clientRepository;
+        this.confirmationTokenRepository = confirmationTokenRepository;
+        this.registrationService = registrationService;
+        this.confirmationTokenTtl = confirmationTokenTtl;
+    }
+
+    public ImportReport registerClients(Iterator<CreateClientCommand> commands) {
+        return importAll(commands);
+    }
+
+    @Override
+    protected Client toEntity(CreateClientCommand command) {
+        return command.toEntity();
+    }
+
+    @Override
+    protected int idOf(Client client) {
+        return client.getId();
+    }
+
+    @Override
+    protected Map<Integer, ViolationInfo> saveChunk(List<Client> clients) {
+        Set<String> taken = new HashSet<>(clientRepository.findExistingEmails(
+                clients.stream().map(Client::getEmail).toList()));
+        Map<Integer, ViolationInfo> rejected = new HashMap<>();
+        List<Client> accepted = new ArrayList<>(clients.size());
+        List<ConfirmationToken> tokens = new ArrayList<>(clients.size());
+        for (int i = 0; i < clients.size(); i++) {
+            Client client = clients.get(i);
+            if (!taken.add(client.getEmail())) {
+                rejected.put(i, EMAIL_TAKEN);
+                continue;
+            }
+            accepted.add(client);
+            tokens.add(ConfirmationToken.forClient(client, confirmationTokenTtl));
+        }
+        clientRepository.saveAll(accepted);
+        confirmationTokenRepository.saveAll(tokens);
+        TransactionHooks.afterCommit(() -> tokens.forEach(
+                token -> registrationService.confirmationEmail(token.getClient(), token.getToken())));
+        return rejected;
+    }
+}
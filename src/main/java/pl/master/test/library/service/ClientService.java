@@ -6,27 +6,34 @@ import pl.master.test.library.model.command.UpdateClientCommand;
 import pl.master.test.library.model.command.UpdateClientSubscriptionAuthorCommand;
 import pl.master.test.library.model.command.UpdateClientSubscriptionCategoryCommand;
 import pl.master.test.library.model.dto.ClientDto;
+import pl.master.test.library.model.dto.CursorPageDto;
+import pl.master.test.library.model.dto.SubscriptionChangeDto;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ClientService {
 
     List<ClientDto> findAll();
 
+    CursorPageDto<ClientDto> findPage(int afterId, int limit, Boolean enabled);
+
+    void streamAll(Boolean enabled, Consumer<ClientDto> consumer);
+
     ClientDto findById(int id);
 
     ClientDto save(CreateClientCommand command);
 
     ClientDto updateClient(int id, UpdateClientCommand command);
 
-    ClientDto subscribeToCategory(int clientId, UpdateClientSubscriptionCategoryCommand command);
+    SubscriptionChangeDto subscribeToCategory(int clientId, UpdateClientSubscriptionCategoryCommand command);
 
-    ClientDto unsubscribeFromCategory(int clientId, UpdateClientSubscriptionCategoryCommand command);
+    SubscriptionChangeDto unsubscribeFromCategory(int clientId, UpdateClientSubscriptionCategoryCommand command);
 
-    ClientDto subscribeToAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command);
+    SubscriptionChangeDto subscribeToAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command);
 
-    ClientDto unsubscribeFromAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command);
+    SubscriptionChangeDto unsubscribeFromAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command);
 
     Set<String> getSubscribedCategories(int clientId);
 
@@ -34,4 +41,6 @@ public interface ClientService {
 
     Client getClientById(int clientId);
 
+    void confirm(String token);
+
 }
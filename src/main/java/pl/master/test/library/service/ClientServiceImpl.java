@@ -1,10 +1,14 @@
 package pl.master.test.library.service;
 
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.master.test.library.common.TransactionHooks;
+import pl.master.test.library.config.MetricsConfig;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.Client;
 import pl.master.test.library.model.ConfirmationToken;
@@ -14,30 +18,63 @@ import pl.master.test.library.model.command.UpdateClientSubscriptionAuthorComman
 import pl.master.test.library.model.command.UpdateClientSubscriptionCategoryCommand;
 import pl.master.test.library.model.dto.BookDto;
 import pl.master.test.library.model.dto.ClientDto;
+import pl.master.test.library.model.dto.CursorPageDto;
+import pl.master.test.library.model.dto.SubscriptionChangeDto;
 import pl.master.test.library.repository.BookRepository;
 import pl.master.test.library.repository.ClientRepository;
 import pl.master.test.library.repository.ConfirmationTokenRepository;
 
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class ClientServiceImpl implements ClientService {
 
 
     private final ClientRepository clientRepository;
     private final RegistrationService registrationService;
     private final ConfirmationTokenRepository confirmationTokenRepository;
+    private final SubscriberIndex subscriberIndex;
+    private final Duration confirmationTokenTtl;
+
+    public ClientServiceImpl(ClientRepository clientRepository, RegistrationService registrationService,
+                             ConfirmationTokenRepository confirmationTokenRepository, SubscriberIndex subscriberIndex,
+                             @Value("${confirmation.token.ttl}") Duration confirmationTokenTtl) {
+        this.clientRepository = clientRepository;
+        this.registrationService = registrationService;
+        this.confirmationTokenRepository = confirmationTokenRepository;
+        this.subscriberIndex = subscriberIndex;
+        this.confirmationTokenTtl = confirmationTokenTtl;
+    }
 
     @Override
     public List<ClientDto> findAll() {
         return clientRepository.findAllClientsAsDto();
     }
 
+    @Override
+    public CursorPageDto<ClientDto> findPage(int afterId, int limit, Boolean enabled) {
+        CursorPageDto.checkLimit(limit);
+        List<ClientDto> clients = clientRepository.findClientsAfter(afterId, enabled, PageRequest.ofSize(limit));
+        return CursorPageDto.of(clients, limit, ClientDto::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Boolean enabled, Consumer<ClientDto> consumer) {
+        try (Stream<ClientDto> clients = clientRepository.streamClientsAsDto(enabled)) {
+            clients.forEach(consumer);
+        }
+    }
+
     @Override
     public ClientDto findById(int id) {
         Client client = getClientById(id);
@@ -51,8 +88,7 @@ public class ClientServiceImpl implements ClientService {
         }
         Client client = command.toEntity();
         clientRepository.save(client);
-        ConfirmationToken confirmationToken = new ConfirmationToken();
-        confirmationToken.setClient(client);
+        ConfirmationToken confirmationToken = ConfirmationToken.forClient(client, confirmationTokenTtl);
         confirmationTokenRepository.save(confirmationToken);
         registrationService.confirmationEmail(client, confirmationToken.getToken());
         return ClientDto.fromEntity(client);
@@ -72,63 +108,64 @@ public class ClientServiceImpl implements ClientService {
 
     @Override
     @Transactional
-    public ClientDto subscribeToCategory(int clientId, UpdateClientSubscriptionCategoryCommand command) {
-        Client client = getClientById(clientId);
-        if (!client.isEnabled()){
-            throw new IllegalArgumentException("Account is not enabled, please confirm by name");
-        }
-        if (client.getSubscribedCategories().contains(command.getSubscribedCategory())) {
-            throw new IllegalArgumentException("Client do subscribe already that category");
+    public SubscriptionChangeDto subscribeToCategory(int clientId, UpdateClientSubscriptionCategoryCommand command) {
+        ClientDto client = getEnabledClient(clientId);
+        String category = command.getSubscribedCategory();
+        boolean changed = clientRepository.addSubscribedCategory(clientId, category) == 1;
+        if (changed) {
+            TransactionHooks.afterCommit(() -> subscriberIndex.categorySubscribed(clientId, category));
+            registrationService.subscribeClientToCategory(client, category);
         }
-        client.getSubscribedCategories().add(command.getSubscribedCategory());
-        clientRepository.save(client);
-        registrationService.subscribeClientToCategory(client, command.getSubscribedCategory());
-        return  ClientDto.fromEntity(client);
+        return new SubscriptionChangeDto(clientId, category, changed);
     }
 
     @Override
-    public ClientDto unsubscribeFromCategory(int clientId, UpdateClientSubscriptionCategoryCommand command) {
-        Client client = getClientById(clientId);
-        if (!client.isEnabled()){
-            throw new IllegalArgumentException("Account is not enabled, please confirm by name");
-        }
-        if (!client.getSubscribedCategories().contains(command.getSubscribedCategory())) {
-            throw new IllegalArgumentException("Client do not subscribe that category");
+    @Transactional
+    public SubscriptionChangeDto unsubscribeFromCategory(int clientId, UpdateClientSubscriptionCategoryCommand command) {
+        ClientDto client = getEnabledClient(clientId);
+        String category = command.getSubscribedCategory();
+        boolean changed = clientRepository.removeSubscribedCategory(clientId, category) == 1;
+        if (changed) {
+            TransactionHooks.afterCommit(() -> subscriberIndex.categoryUnsubscribed(clientId, category));
+            registrationService.unsubscribeClientToCategory(client, category);
         }
-        client.getSubscribedCategories().remove(command.getSubscribedCategory());
-        clientRepository.save(client);
-        registrationService.unsubscribeClientToCategory(client, command.getSubscribedCategory());
-        return  ClientDto.fromEntity(client);
+        return new SubscriptionChangeDto(clientId, category, changed);
     }
 
     @Override
-    public ClientDto subscribeToAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command) {
-        Client client = getClientById(clientId);
-        if (!client.isEnabled()){
-            throw new IllegalArgumentException("Account is not enabled, please confirm by name");
-        }
-        if (client.getSubscribedAuthors().contains(command.getSubscribedAuthor())) {
-            throw new IllegalArgumentException("Client do subscribe already that author");
+    @Transactional
+    public SubscriptionChangeDto subscribeToAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command) {
+        ClientDto client = getEnabledClient(clientId);
+        String author = command.getSubscribedAuthor();
+        boolean changed = clientRepository.addSubscribedAuthor(clientId, author) == 1;
+        if (changed) {
+            TransactionHooks.afterCommit(() -> subscriberIndex.authorSubscribed(clientId, author));
+            registrationService.subscribeClientToAuthor(client, author);
         }
-        client.getSubscribedAuthors().add(command.getSubscribedAuthor());
-        clientRepository.save(client);
-        registrationService.subscribeClientToAuthor(client, command.getSubscribedAuthor());
-        return  ClientDto.fromEntity(client);
+        return new SubscriptionChangeDto(clientId, author, changed);
     }
 
     @Override
-    public ClientDto unsubscribeFromAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command) {
-        Client client = getClientById(clientId);
-        if (!client.isEnabled()){
-            throw new IllegalArgumentException("Account is not enabled, please confirm by name");
+    @Transactional
+    public SubscriptionChangeDto unsubscribeFromAuthor(int clientId, UpdateClientSubscriptionAuthorCommand command) {
+        ClientDto client = getEnabledClient(clientId);
+        String author = command.getSubscribedAuthor();
+        boolean changed = clientRepository.removeSubscribedAuthor(clientId, author) == 1;
+        if (changed) {
+            TransactionHooks.afterCommit(() -> subscriberIndex.authorUnsubscribed(clientId, author));
+            registrationService.unsubscribeClientAuthor(client, author);
         }
-        if (!client.getSubscribedAuthors().contains(command.getSubscribedAuthor())) {
-            throw new IllegalArgumentException("Client do not subscribe that category");
+        return new SubscriptionChangeDto(clientId, author, changed);
+    }
+
+    private ClientDto getEnabledClient(int clientId) {
+        ClientDto client = clientRepository.findClientDtoById(clientId).orElseThrow(
+                () -> new EntityNotFoundException(MessageFormat.format(
+                        "Client with id={0} not found", clientId)));
+        if (!client.isEnabled()) {
+            throw new IllegalArgumentException("Account is not enabled, please confirm by name");
         }
-        client.getSubscribedAuthors().remove(command.getSubscribedAuthor());
-        clientRepository.save(client);
-        registrationService.unsubscribeClientAuthor(client, command.getSubscribedAuthor());
-        return  ClientDto.fromEntity(client);
+        return client;
     }
 
     @Override
@@ -145,6 +182,16 @@ public class ClientServiceImpl implements ClientService {
                 .orElseThrow(() -> new IllegalArgumentException("Client not found!"));
     }
 
+    @Override
+    @Transactional
+    public void confirm(String token) {
+        byte[] tokenHash = ConfirmationToken.hash(token);
+        clientRepository.enableByConfirmationToken(tokenHash, LocalDateTime.now()).orElseThrow(
+                () -> new EntityNotFoundException(MessageFormat.format(
+                        "Token not found or invalid: {0}", token)));
+        confirmationTokenRepository.deleteByTokenHash(tokenHash);
+    }
+
     @Override
     public Client getClientById(int clientId) {
         return clientRepository.findById(clientId).orElseThrow(
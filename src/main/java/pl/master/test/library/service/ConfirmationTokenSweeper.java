@@ -0,0 +1,39 @@
+package pl.master.test.library.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.repository.ConfirmationTokenRepository;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class ConfirmationTokenSweeper {
+
+    private final ConfirmationTokenRepository confirmationTokenRepository;
+    private final int batchSize;
+
+    public ConfirmationTokenSweeper(ConfirmationTokenRepository confirmationTokenRepository,
+                                    @Value("${confirmation.token.sweep-batch-size}") int batchSize) {
+        this.confirmationTokenRepository = confirmationTokenRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${confirmation.token.sweep-interval}",
+            initialDelayString = "${confirmation.token.sweep-interval}")
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = confirmationTokenRepository.deleteExpired(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            log.info("Removed {} expired confirmation token(s)", total);
+        }
+        return total;
+    }
+}
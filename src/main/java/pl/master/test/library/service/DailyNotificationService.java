@@ -1,71 +1,128 @@
 package pl.master.test.library.service;
 
-import jakarta.validation.constraints.NotNull;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import pl.master.test.library.model.Book;
-import pl.master.test.library.model.Client;
+import pl.master.test.library.batch.AbandonedJobExecutions;
+import pl.master.test.library.config.DailyDigestJobConfig;
+import pl.master.test.library.config.MetricsConfig;
+import pl.master.test.library.model.NotificationWatermark;
 import pl.master.test.library.repository.BookRepository;
-import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.repository.NotificationWatermarkRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.stream.Collectors;
 
+@Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class DailyNotificationService {
+    public static final String DAILY_DIGEST_WATERMARK = "daily-digest";
+    public static final String DAILY_DIGEST_LEASE = "daily-digest";
+
     private final BookRepository bookRepository;
-    private final RegistrationService registrationService;
-    private final ClientRepository clientRepository;
+    private final NotificationWatermarkRepository watermarkRepository;
+    private final JobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
+    private final Job dailyDigestJob;
+    private final SchedulerLock schedulerLock;
+    private final AbandonedJobExecutions abandonedJobExecutions;
 
-    @Value("${notification.batch.size}")
-    private int batchSize;
+    @Value("${notification.settle-lag}")
+    private Duration settleLag;
+    @Value("${notification.initial-lookback}")
+    private Duration initialLookback;
 
     @Scheduled(cron = "${scheduled.cron.expression}")
-    @Transactional
     public void sendDailyNotifications() {
-        int pageNumber = 0;
-        Page<Client> clientPage;
+        if (!schedulerLock.tryAcquire(DAILY_DIGEST_LEASE)) {
+            return;
+        }
+        try {
+            runDailyDigest();
+        } finally {
+            schedulerLock.release(DAILY_DIGEST_LEASE);
+        }
+    }
 
-        do {
-            Pageable pageable = PageRequest.of(pageNumber, batchSize);
-            clientPage = clientRepository.findAllByEnabledTrueAndSubscriptionsNotEmpty(pageable);
+    private void runDailyDigest() {
+        JobExecution unfinished = findUnfinishedExecution();
+        if (unfinished != null) {
+            log.info("Restarting daily digest execution {} from its last committed chunk", unfinished.getId());
+            launch(unfinished.getJobParameters());
+            return;
+        }
 
-            processClientsBatch(clientPage.getContent());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = watermarkRepository.findById(DAILY_DIGEST_WATERMARK)
+                .map(NotificationWatermark::getProcessedUntil)
+                .orElseGet(() -> now.minus(initialLookback));
+        LocalDateTime until = now.minus(settleLag);
+        if (!until.isAfter(since)) {
+            return;
+        }
+        if (!bookRepository.existsCreatedBetween(since, until)) {
+            advanceWatermark(until);
+            return;
+        }
+        launch(new JobParametersBuilder()
+                .addLocalDateTime(DailyDigestJobConfig.SINCE, since)
+                .addLocalDateTime(DailyDigestJobConfig.UNTIL, until)
+                .toJobParameters());
+    }
 
-            pageNumber++;
-        } while (clientPage.hasNext());
+    public void setSettleLag(Duration settleLag) {
+        this.settleLag = settleLag;
     }
 
-    public void processClientsBatch(List<Client> clients) {
-        for (Client client : clients) {
-            List<Book> booksOfInterest = bookRepository.findAllByAuthorOrCategoryInAndCreatedDateAfter(
-                    client.getSubscribedAuthors(),
-                    client.getSubscribedCategories(),
-                    LocalDateTime.now().minusDays(1));
+    public void setInitialLookback(Duration initialLookback) {
+        this.initialLookback = initialLookback;
+    }
 
-            if (!booksOfInterest.isEmpty()) {
-                String notificationMessage = generateNotificationMessage(booksOfInterest);
-                registrationService.newLibraryPosition(client.getEmail(), notificationMessage);
-            }
+    private void advanceWatermark(LocalDateTime processedUntil) {
+        NotificationWatermark watermark = watermarkRepository.findById(DAILY_DIGEST_WATERMARK)
+                .orElseGet(() -> new NotificationWatermark(DAILY_DIGEST_WATERMARK, processedUntil));
+        if (watermark.getProcessedUntil().isAfter(processedUntil)) {
+            return;
         }
+        watermark.setProcessedUntil(processedUntil);
+        watermarkRepository.save(watermark);
     }
 
-    private String generateNotificationMessage(List<Book> books) {
-        return books.stream()
-                .map(book -> "Title: " + book.getTitle() + ", Author: " + book.getAuthor())
-                .collect(Collectors.joining("\n", "New books available:\n", ""));
+    private JobExecution findUnfinishedExecution() {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(dailyDigestJob.getName());
+        if (lastInstance == null) {
+            return null;
+        }
+        JobExecution lastExecution = jobExplorer.getLastJobExecution(lastInstance);
+        if (lastExecution == null) {
+            return null;
+        }
+        BatchStatus status = lastExecution.getStatus();
+        if (status.isRunning()) {
+            abandonedJobExecutions.markFailed(lastExecution);
+            return lastExecution;
+        }
+        return status == BatchStatus.FAILED || status == BatchStatus.STOPPED ? lastExecution : null;
     }
 
-    public void setBatchSize(int batchSize) {
-        this.batchSize = batchSize;
+    private void launch(JobParameters jobParameters) {
+        try {
+            JobExecution execution = jobLauncher.run(dailyDigestJob, jobParameters);
+            if (execution.getStatus() == BatchStatus.COMPLETED) {
+                advanceWatermark(jobParameters.getLocalDateTime(DailyDigestJobConfig.UNTIL));
+            } else {
+                log.warn("Daily digest execution {} finished with status {}", execution.getId(), execution.getStatus());
+            }
+        } catch (JobExecutionException e) {
+            log.error("Daily digest job could not be launched", e);
+        }
     }
 }
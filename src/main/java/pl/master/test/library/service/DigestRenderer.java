@@ -0,0 +1,95 @@
+package pl.master.test.library.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.model.dto.DailyDigest;
+
+import java.util.BitSet;
+import java.util.Set;
+
+public class DigestRenderer {
+
+    private static final String HEADER = "New books available:\n";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final String NO_MATCHES = "";
+
+    private final NewBooksIndex newBooks;
+    private final String[] lines;
+    private final ThreadLocal<Scratch> scratch;
+    private final Cache<Fingerprint, String> textsByFingerprint;
+
+    private DigestRenderer(NewBooksIndex newBooks, long maxFingerprints) {
+        this.newBooks = newBooks;
+        this.lines = new String[newBooks.size()];
+        for (int position = 0; position < lines.length; position++) {
+            Book book = newBooks.get(position);
+            lines[position] = "Title: " + book.getTitle() + ", Author: " + book.getAuthor();
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(lines.length));
+        this.textsByFingerprint = Caffeine.newBuilder()
+                .maximumSize(maxFingerprints)
+                .build();
+    }
+
+    public static DigestRenderer of(NewBooksIndex newBooks, long maxFingerprints) {
+        return new DigestRenderer(newBooks, maxFingerprints);
+    }
+
+    public boolean isEmpty() {
+        return newBooks.isEmpty();
+    }
+
+    public DailyDigest render(ClientSubscriptions client) {
+        Fingerprint fingerprint = Fingerprint.of(client.getSubscribedAuthors(), client.getSubscribedCategories());
+        String text = textsByFingerprint.get(fingerprint, this::renderText);
+        return text.isEmpty() ? null : new DailyDigest(client.getEmail(), text);
+    }
+
+    public long distinctFingerprints() {
+        return textsByFingerprint.estimatedSize();
+    }
+
+    private String renderText(Fingerprint fingerprint) {
+        Scratch buffers = scratch.get();
+        BitSet matches = buffers.matches;
+        matches.clear();
+        newBooks.collectMatches(fingerprint.authors(), fingerprint.categories(), matches);
+        if (matches.isEmpty()) {
+            return NO_MATCHES;
+        }
+
+        StringBuilder text = buffers.text;
+        text.setLength(0);
+        text.append(HEADER);
+        int position = matches.nextSetBit(0);
+        text.append(lines[position]);
+        for (position = matches.nextSetBit(position + 1); position >= 0; position = matches.nextSetBit(position + 1)) {
+            text.append('\n').append(lines[position]);
+        }
+        String rendered = text.toString();
+        if (text.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.text = new StringBuilder(HEADER.length() * 4);
+        }
+        return rendered;
+    }
+
+    private record Fingerprint(Set<String> authors, Set<String> categories) {
+
+        private static Fingerprint of(Set<String> authors, Set<String> categories) {
+            return new Fingerprint(authors == null ? Set.of() : authors, categories == null ? Set.of() : categories);
+        }
+    }
+
+    private static final class Scratch {
+
+        private final BitSet matches;
+        private StringBuilder text;
+
+        private Scratch(int books) {
+            this.matches = new BitSet(books);
+            this.text = new StringBuilder(256);
+        }
+    }
+}
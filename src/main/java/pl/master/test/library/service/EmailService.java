@@ -1,22 +1,31 @@
 package pl.master.test.library.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import pl.master.test.library.config.MetricsConfig;
+import pl.master.test.library.model.dto.MailBatchReport;
+
+import java.util.Collection;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class EmailService {
-    private final JavaMailSender mailSender;
+    private final MailOutbox mailOutbox;
+    private final MailBatchSender mailBatchSender;
 
     public void sendSimpleMessage(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text);
-        mailSender.send(message);
+        mailOutbox.submit(message);
+    }
+
+    public MailBatchReport sendBatch(Collection<SimpleMailMessage> messages) {
+        return mailBatchSender.send(messages);
     }
 
 
@@ -0,0 +1,105 @@
+package pl.master.test.library.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.config.MetricsConfig;
+import pl.master.test.library.model.dto.MailBatchReport;
+import pl.master.test.library.properties.LibraryMailProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+@Slf4j
+@Component
+public class MailBatchSender {
+
+    private final JavaMailSender mailSender;
+    private final LibraryMailProperties.Bulk properties;
+    private final ExecutorService connections;
+    private final Timer sendTimer;
+    private final Counter failures;
+
+    public MailBatchSender(JavaMailSender mailSender, LibraryMailProperties properties, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.properties = properties.getBulk();
+        this.connections = Executors.newFixedThreadPool(this.properties.getConnections(),
+                new CustomizableThreadFactory("mail-bulk-"));
+        this.sendTimer = Timer.builder(MetricsConfig.MAIL_SEND_TIMER).tag("sender", "bulk").register(meterRegistry);
+        this.failures = meterRegistry.counter(MetricsConfig.MAIL_FAILURES, "sender", "bulk", "outcome", "failed");
+    }
+
+    public MailBatchReport send(Collection<SimpleMailMessage> messages) {
+        List<Future<MailBatchReport>> chunks = new ArrayList<>();
+        List<SimpleMailMessage> chunk = new ArrayList<>(properties.getMessagesPerConnection());
+        for (SimpleMailMessage message : messages) {
+            chunk.add(message);
+            if (chunk.size() == properties.getMessagesPerConnection()) {
+                chunks.add(submit(chunk));
+                chunk = new ArrayList<>(properties.getMessagesPerConnection());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(submit(chunk));
+        }
+
+        MailBatchReport report = new MailBatchReport();
+        for (Future<MailBatchReport> future : chunks) {
+            report.merge(await(future));
+        }
+        return report;
+    }
+
+    private Future<MailBatchReport> submit(List<SimpleMailMessage> chunk) {
+        return connections.submit(() -> sendOverOneConnection(chunk));
+    }
+
+    private MailBatchReport sendOverOneConnection(List<SimpleMailMessage> chunk) {
+        MailBatchReport report = new MailBatchReport();
+        try {
+            sendTimer.record(() -> mailSender.send(chunk.toArray(SimpleMailMessage[]::new)));
+            chunk.forEach(report::addDelivered);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (SimpleMailMessage message : chunk) {
+                Exception cause = failedMessages.get(message);
+                if (cause == null) {
+                    report.addDelivered(message);
+                } else {
+                    report.addFailed(message, cause);
+                }
+            }
+        } catch (MailException e) {
+            chunk.forEach(message -> report.addFailed(message, e));
+        }
+        failures.increment(report.getFailed().size());
+        return report;
+    }
+
+    private static MailBatchReport await(Future<MailBatchReport> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while sending mail batch", e);
+        } catch (ExecutionException e) {
+            throw new MailSendException("Mail batch failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.shutdown();
+    }
+}
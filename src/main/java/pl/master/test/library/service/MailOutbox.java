@@ -0,0 +1,140 @@
+package pl.master.test.library.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.common.TransactionHooks;
+import pl.master.test.library.config.MetricsConfig;
+import pl.master.test.library.properties.LibraryMailProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+@Slf4j
+@Component
+public class MailOutbox {
+
+    private final JavaMailSender mailSender;
+    private final LibraryMailProperties.Outbox properties;
+    private final BlockingQueue<OutboundMail> queue;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final MeterRegistry meterRegistry;
+    private final Timer sendTimer;
+    private volatile boolean running;
+
+    public MailOutbox(JavaMailSender mailSender, LibraryMailProperties properties, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties.getOutbox();
+        this.queue = new ArrayBlockingQueue<>(this.properties.getCapacity());
+        this.workers = Executors.newFixedThreadPool(this.properties.getWorkers(),
+                new CustomizableThreadFactory("mail-outbox-"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("mail-outbox-retry-"));
+        this.sendTimer = Timer.builder(MetricsConfig.MAIL_SEND_TIMER).tag("sender", "outbox").register(meterRegistry);
+        Gauge.builder("library.mail.outbox.pending", queue, Collection::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    public void submit(SimpleMailMessage message) {
+        TransactionHooks.afterCommit(() -> enqueue(new OutboundMail(message, 1)));
+    }
+
+    private void enqueue(OutboundMail mail) {
+        try {
+            if (running && queue.offer(mail, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Mail outbox is full, sending to {} on the calling thread", (Object) mail.message().getTo());
+        send(List.of(mail));
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                List<OutboundMail> batch = new ArrayList<>();
+                batch.add(queue.take());
+                queue.drainTo(batch, properties.getMessagesPerConnection() - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Mail outbox worker failed", e);
+            }
+        }
+    }
+
+    private void send(List<OutboundMail> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                .map(OutboundMail::message)
+                .toArray(SimpleMailMessage[]::new);
+        try {
+            sendTimer.record(() -> mailSender.send(messages));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            batch.stream()
+                    .filter(mail -> failedMessages.containsKey(mail.message()))
+                    .forEach(mail -> retry(mail, failedMessages.get(mail.message())));
+        } catch (MailException e) {
+            failures("rejected").increment(batch.size());
+            log.error("Dropping {} mail(s), the mail server rejected them", batch.size(), e);
+        }
+    }
+
+    private void retry(OutboundMail mail, Exception cause) {
+        if (mail.attempt() >= properties.getMaxAttempts() || retryScheduler.isShutdown()) {
+            failures("gave_up").increment();
+            log.error("Giving up on mail to {} after {} attempt(s)", mail.message().getTo(), mail.attempt(), cause);
+            return;
+        }
+        failures("retried").increment();
+        long delay = properties.getInitialBackoff().toMillis() << (mail.attempt() - 1);
+        retryScheduler.schedule(() -> enqueue(new OutboundMail(mail.message(), mail.attempt() + 1)),
+                delay, TimeUnit.MILLISECONDS);
+    }
+
+    private Counter failures(String outcome) {
+        return meterRegistry.counter(MetricsConfig.MAIL_FAILURES, "sender", "outbox", "outcome", outcome);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        List<OutboundMail> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            send(remaining);
+        }
+    }
+
+    private record OutboundMail(SimpleMailMessage message, int attempt) {
+    }
+}
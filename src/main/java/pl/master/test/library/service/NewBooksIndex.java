@@ -0,0 +1,71 @@
+package pl.master.test.library.service;
+
+import pl.master.test.library.model.Book;
+
+import java.util.*;
+
+public class NewBooksIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final List<Book> books;
+    private final Map<String, int[]> positionsByAuthor;
+    private final Map<String, int[]> positionsByCategory;
+
+    private NewBooksIndex(List<Book> books) {
+        this.books = List.copyOf(books);
+        Map<String, List<Integer>> byAuthor = new HashMap<>();
+        Map<String, List<Integer>> byCategory = new HashMap<>();
+        for (int position = 0; position < this.books.size(); position++) {
+            Book book = this.books.get(position);
+            byAuthor.computeIfAbsent(book.getAuthor(), author -> new ArrayList<>()).add(position);
+            byCategory.computeIfAbsent(book.getCategory(), category -> new ArrayList<>()).add(position);
+        }
+        this.positionsByAuthor = toPositions(byAuthor);
+        this.positionsByCategory = toPositions(byCategory);
+    }
+
+    public static NewBooksIndex of(List<Book> books) {
+        return new NewBooksIndex(books);
+    }
+
+    public boolean isEmpty() {
+        return books.isEmpty();
+    }
+
+    public int size() {
+        return books.size();
+    }
+
+    public Book get(int position) {
+        return books.get(position);
+    }
+
+    public List<Book> match(Set<String> subscribedAuthors, Set<String> subscribedCategories) {
+        BitSet matches = new BitSet(books.size());
+        collectMatches(subscribedAuthors, subscribedCategories, matches);
+        return matches.stream().mapToObj(books::get).toList();
+    }
+
+    public void collectMatches(Set<String> subscribedAuthors, Set<String> subscribedCategories, BitSet matches) {
+        collect(positionsByAuthor, subscribedAuthors, matches);
+        collect(positionsByCategory, subscribedCategories, matches);
+    }
+
+    private static void collect(Map<String, int[]> index, Set<String> keys, BitSet matches) {
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            for (int position : index.getOrDefault(key, NO_POSITIONS)) {
+                matches.set(position);
+            }
+        }
+    }
+
+    private static Map<String, int[]> toPositions(Map<String, List<Integer>> positions) {
+        Map<String, int[]> result = new HashMap<>(positions.size() * 2);
+        positions.forEach((key, list) -> result.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+}
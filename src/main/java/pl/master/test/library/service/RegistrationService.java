@@ -2,43 +2,68 @@ package pl.master.test.library.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.SimpleMailMessage;
 import org.springframework.stereotype.Service;
 import pl.master.test.library.model.Client;
+import pl.master.test.library.model.dto.ClientDto;
+import pl.master.test.library.model.dto.MailBatchReport;
 import pl.master.test.library.properties.LibraryApiProperties;
 import pl.master.test.library.repository.ClientRepository;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class RegistrationService {
 
+    private static final String NEW_LIBRARY_POSITION_SUBJECT = "Subscribed books appeared";
+
     private final LibraryApiProperties libraryApiProperties;
     private final EmailService emailService;
 
 
-    public void subscribeClientToCategory(Client client, String category) {
+    public void subscribeClientToCategory(ClientDto client, String category) {
         String messageText = MessageFormat.format("Hello {0}, You have successfully subscribed to the category: {1}", client.getFirstName(), category);
         emailService.sendSimpleMessage(client.getEmail(), "Subscription Successful - Category: " + category, messageText);
     }
 
-    public void subscribeClientToAuthor(Client client, String author) {
+    public void subscribeClientToAuthor(ClientDto client, String author) {
         String messageText = MessageFormat.format("Hello {0}, You have successfully subscribed to the author: {1}", client.getFirstName(), author);
         emailService.sendSimpleMessage(client.getEmail(), "Subscription Successful - Author: " + author, messageText);
     }
 
-    public void unsubscribeClientToCategory(Client client, String category) {
+    public void unsubscribeClientToCategory(ClientDto client, String category) {
         String messageText = MessageFormat.format("Hello {0}, You have successfully unsubscribed the category: {1}", client.getFirstName(), category);
         emailService.sendSimpleMessage(client.getEmail(), "Subscription Removal Successful - Category: " + category, messageText);
     }
 
-    public void unsubscribeClientAuthor(Client client, String author) {
+    public void unsubscribeClientAuthor(ClientDto client, String author) {
         String messageText = MessageFormat.format("Hello {0}, You have successfully unsubscribed to the author: {1}", client.getFirstName(), author);
         emailService.sendSimpleMessage(client.getEmail(), "Subscription Removal Successful - Author: " + author, messageText);
     }
 
     public void newLibraryPosition(String emailClient, String messageText) {
-        emailService.sendSimpleMessage(emailClient, "Subscribed books appeared", messageText);
+        emailService.sendSimpleMessage(emailClient, NEW_LIBRARY_POSITION_SUBJECT, messageText);
+    }
+
+    public void newBookAdded(String emailClient, String title, String author, String category) {
+        String messageText = MessageFormat.format("New book available: {0}, Author: {1}, Category: {2}", title, author, category);
+        emailService.sendSimpleMessage(emailClient, "New book added - " + title, messageText);
+    }
+
+    public MailBatchReport newLibraryPositions(Map<String, String> messagesByEmail) {
+        List<SimpleMailMessage> messages = new ArrayList<>(messagesByEmail.size());
+        messagesByEmail.forEach((emailClient, messageText) -> {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(emailClient);
+            message.setSubject(NEW_LIBRARY_POSITION_SUBJECT);
+            message.setText(messageText);
+            messages.add(message);
+        });
+        return emailService.sendBatch(messages);
     }
 
     public void confirmationEmail(Client client, String token) {
@@ -0,0 +1,80 @@
+package pl.master.test.library.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.master.test.library.repository.SchedulerLeaseRepository;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class SchedulerLock {
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final Duration leaseDuration;
+    private final String owner;
+    private final Map<String, LocalDateTime> heldUntil = new ConcurrentHashMap<>();
+
+    public SchedulerLock(SchedulerLeaseRepository leaseRepository,
+                         @Value("${scheduled.lease-duration}") Duration leaseDuration) {
+        this.leaseRepository = leaseRepository;
+        this.leaseDuration = leaseDuration;
+        this.owner = hostName() + ":" + UUID.randomUUID();
+    }
+
+    public boolean tryAcquire(String name) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(leaseDuration);
+        boolean acquired = leaseRepository.tryAcquire(name, owner, now, until) == 1;
+        if (acquired) {
+            heldUntil.put(name, until);
+        } else {
+            log.info("Lease {} is held by another node, skipping this run", name);
+        }
+        return acquired;
+    }
+
+    /**
+     * Pushes a lease held by this node forward once half of it has elapsed. Returns false when another node has
+     * taken the lease over in the meantime, true otherwise (also when this node does not hold it).
+     */
+    public boolean extend(String name) {
+        LocalDateTime until = heldUntil.get(name);
+        LocalDateTime now = LocalDateTime.now();
+        if (until == null || now.isBefore(until.minus(leaseDuration.dividedBy(2)))) {
+            return true;
+        }
+        LocalDateTime extendedUntil = now.plus(leaseDuration);
+        if (leaseRepository.renew(name, owner, extendedUntil) == 1) {
+            heldUntil.put(name, extendedUntil);
+            return true;
+        }
+        heldUntil.remove(name);
+        log.warn("Lease {} was taken over by another node", name);
+        return false;
+    }
+
+    public void release(String name) {
+        heldUntil.remove(name);
+        leaseRepository.release(name, owner, LocalDateTime.now());
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
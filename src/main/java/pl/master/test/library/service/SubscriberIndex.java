@@ -0,0 +1,215 @@
+package pl.master.test.library.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.master.test.library.config.AmqpConfig;
+import pl.master.test.library.model.event.SubscriptionChangedEvent;
+import pl.master.test.library.model.event.SubscriptionChangedEvent.Kind;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class SubscriberIndex {
+
+    private final ClientRepository clientRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Postings authors = new Postings();
+    private final Postings categories = new Postings();
+
+    public SubscriberIndex(ClientRepository clientRepository, RabbitTemplate rabbitTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.clientRepository = clientRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${subscriptions.index.refresh-interval}",
+            initialDelayString = "${subscriptions.index.refresh-interval}")
+    public void rebuild() {
+        authors.beginRebuild();
+        categories.beginRebuild();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = clientRepository.streamAllSubscribedAuthors()) {
+                    authors.completeRebuild(rows);
+                }
+                try (Stream<Object[]> rows = clientRepository.streamAllSubscribedCategories()) {
+                    categories.completeRebuild(rows);
+                }
+            });
+        } finally {
+            authors.abandonRebuild();
+            categories.abandonRebuild();
+        }
+        log.debug("Subscriber index rebuilt with {} authors and {} categories", authors.size(), categories.size());
+    }
+
+    public int[] subscribersOf(String author, String category) {
+        return union(authors.get(author), categories.get(category));
+    }
+
+    public void authorSubscribed(int clientId, String author) {
+        changed(new SubscriptionChangedEvent(nodeId, clientId, Kind.AUTHOR, author, true));
+    }
+
+    public void authorUnsubscribed(int clientId, String author) {
+        changed(new SubscriptionChangedEvent(nodeId, clientId, Kind.AUTHOR, author, false));
+    }
+
+    public void categorySubscribed(int clientId, String category) {
+        changed(new SubscriptionChangedEvent(nodeId, clientId, Kind.CATEGORY, category, true));
+    }
+
+    public void categoryUnsubscribed(int clientId, String category) {
+        changed(new SubscriptionChangedEvent(nodeId, clientId, Kind.CATEGORY, category, false));
+    }
+
+    @RabbitListener(queues = "#{subscriptionChangedQueue.name}")
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        if (!nodeId.equals(event.getOrigin())) {
+            apply(event);
+        }
+    }
+
+    private void changed(SubscriptionChangedEvent event) {
+        apply(event);
+        try {
+            rabbitTemplate.convertAndSend(AmqpConfig.SUBSCRIPTION_CHANGED_EXCHANGE, "", event);
+        } catch (AmqpException e) {
+            log.warn("Could not broadcast subscription change of client id={}", event.getClientId(), e);
+        }
+    }
+
+    private void apply(SubscriptionChangedEvent event) {
+        Postings postings = event.getKind() == Kind.AUTHOR ? authors : categories;
+        postings.apply(new Mutation(event.getName(), event.getClientId(), event.isSubscribed()));
+    }
+
+    private static int[] union(int[] left, int[] right) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0, j = 0, size = 0;
+        while (i < left.length || j < right.length) {
+            int next;
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                next = left[i++];
+            } else if (i == left.length || right[j] < left[i]) {
+                next = right[j++];
+            } else {
+                next = left[i++];
+                j++;
+            }
+            merged[size++] = next;
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private record Mutation(String name, int clientId, boolean subscribed) {
+
+        void applyTo(Map<String, ClientIdSet> clientsByName) {
+            if (subscribed) {
+                clientsByName.computeIfAbsent(name, key -> new ClientIdSet()).add(clientId);
+                return;
+            }
+            ClientIdSet clients = clientsByName.get(name);
+            if (clients != null) {
+                clients.remove(clientId);
+                if (clients.isEmpty()) {
+                    clientsByName.remove(name);
+                }
+            }
+        }
+    }
+
+    private static class Postings {
+
+        private static final int[] NONE = new int[0];
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private Map<String, ClientIdSet> clientsByName = new HashMap<>();
+        private List<Mutation> appliedDuringRebuild;
+
+        void beginRebuild() {
+            lock.writeLock().lock();
+            try {
+                appliedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void completeRebuild(Stream<Object[]> rows) {
+            Map<String, ClientIdSet> rebuilt = new HashMap<>();
+            rows.forEach(row -> rebuilt.computeIfAbsent((String) row[1], name -> new ClientIdSet()).add((Integer) row[0]));
+            lock.writeLock().lock();
+            try {
+                appliedDuringRebuild.forEach(mutation -> mutation.applyTo(rebuilt));
+                appliedDuringRebuild = null;
+                clientsByName = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void abandonRebuild() {
+            lock.writeLock().lock();
+            try {
+                appliedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int[] get(String name) {
+            lock.readLock().lock();
+            try {
+                ClientIdSet clients = clientsByName.get(name);
+                return clients != null ? clients.toArray() : NONE;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void apply(Mutation mutation) {
+            lock.writeLock().lock();
+            try {
+                mutation.applyTo(clientsByName);
+                if (appliedDuringRebuild != null) {
+                    appliedDuringRebuild.add(mutation);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return clientsByName.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
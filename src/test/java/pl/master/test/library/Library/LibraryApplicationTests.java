@@ -3,7 +3,7 @@ package pl.master.test.library.Library;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.rabbitmq.listener.simple.auto-startup=false")
 class LibraryApplicationTests {
 
 	@Test
@@ -0,0 +1,186 @@
+package pl.master.test.library.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+import pl.master.test.library.config.BookImportJobConfig;
+import pl.master.test.library.model.dto.BookImportStatusDto;
+import pl.master.test.library.repository.BookRepository;
+import pl.master.test.library.service.BookFileImportService;
+import pl.master.test.library.service.EmailService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "book.import.directory=target/import-test",
+        "book.import.chunk-size=100",
+        "book.import.skip-limit=1"
+})
+@ActiveProfiles("test")
+class BookImportJobTest {
+
+    private static final Path IMPORT_DIRECTORY = Path.of("target/import-test");
+
+    @Autowired
+    private BookFileImportService bookFileImportService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void init() throws IOException {
+        Files.createDirectories(IMPORT_DIRECTORY);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        bookRepository.deleteAll();
+        FileSystemUtils.deleteRecursively(IMPORT_DIRECTORY);
+    }
+
+    @Test
+    void start_CsvFile_ValidRowsImportedInvalidRowsFilteredAndSkipped() throws Exception {
+        List<String> lines = csv(250);
+        lines.set(10, "rowling,Potter,Fantasy");
+        lines.set(20, "Rowling;Potter;Fantasy");
+        Files.write(IMPORT_DIRECTORY.resolve("catalogue.csv"), lines);
+
+        BookImportStatusDto status = await(bookFileImportService.start("catalogue.csv"));
+
+        assertEquals(BatchStatus.COMPLETED, status.getStatus());
+        assertEquals(248, status.getWriteCount());
+        assertEquals(1, status.getFilterCount());
+        assertEquals(1, status.getSkipCount());
+        assertEquals(248, bookRepository.count());
+    }
+
+    @Test
+    void start_NdjsonFile_BooksImported() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            lines.add("{\"author\":\"Rowling\",\"title\":\"Potter\",\"category\":\"Fantasy\"}");
+        }
+        Files.write(IMPORT_DIRECTORY.resolve("catalogue.ndjson"), lines);
+
+        BookImportStatusDto status = await(bookFileImportService.start("catalogue.ndjson"));
+
+        assertEquals(BatchStatus.COMPLETED, status.getStatus());
+        assertEquals(150, bookRepository.count());
+    }
+
+    @Test
+    void start_FailedImportRestarted_ResumesWithoutDuplicates() throws Exception {
+        Path file = IMPORT_DIRECTORY.resolve("restart.csv");
+        List<String> lines = csv(300);
+        lines.set(50, "Rowling;Potter;Fantasy");
+        lines.set(150, "Rowling;Potter;Fantasy");
+        Files.write(file, lines);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+
+        BookImportStatusDto failed = await(bookFileImportService.start("restart.csv"));
+        assertEquals(BatchStatus.FAILED, failed.getStatus());
+        assertEquals(100, bookRepository.count());
+
+        lines.set(150, "Rowling,Potter,Fantasy");
+        Files.write(file, lines);
+        Files.setLastModifiedTime(file, lastModified);
+        BookImportStatusDto restarted = await(bookFileImportService.start("restart.csv"));
+
+        assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+        assertEquals(299, bookRepository.count());
+        assertThrows(IllegalArgumentException.class, () -> bookFileImportService.start("restart.csv"));
+    }
+
+    @Test
+    void start_ExecutionAbandonedByCrashedNode_MarkedFailedAndRestarted() throws Exception {
+        Path file = IMPORT_DIRECTORY.resolve("crashed.csv");
+        Files.write(file, csv(150));
+        JobExecution crashed = startedExecution(file);
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+        jdbcTemplate.update("UPDATE BATCH_JOB_EXECUTION SET LAST_UPDATED = ?, START_TIME = ?, CREATE_TIME = ? " +
+                "WHERE JOB_EXECUTION_ID = ?", longAgo, longAgo, longAgo, crashed.getId());
+        jdbcTemplate.update("UPDATE BATCH_STEP_EXECUTION SET LAST_UPDATED = ? WHERE JOB_EXECUTION_ID = ?",
+                longAgo, crashed.getId());
+
+        BookImportStatusDto restarted = await(bookFileImportService.start("crashed.csv"));
+
+        assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+        assertEquals(150, bookRepository.count());
+        assertEquals(BatchStatus.FAILED, bookFileImportService.getStatus(crashed.getId()).getStatus());
+    }
+
+    @Test
+    void start_ExecutionRecentlyUpdatedByAnotherNode_NotTakenOver() throws Exception {
+        Path file = IMPORT_DIRECTORY.resolve("live.csv");
+        Files.write(file, csv(10));
+        JobExecution live = startedExecution(file);
+
+        assertThrows(IllegalArgumentException.class, () -> bookFileImportService.start("live.csv"));
+
+        assertEquals(BatchStatus.STARTED, bookFileImportService.getStatus(live.getId()).getStatus());
+        assertEquals(0, bookRepository.count());
+    }
+
+    @Test
+    void start_FileOutsideImportDirectory_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> bookFileImportService.start("../pom.xml"));
+        assertThrows(IllegalArgumentException.class, () -> bookFileImportService.start("missing.csv"));
+    }
+
+    private BookImportStatusDto await(BookImportStatusDto started) throws InterruptedException {
+        BookImportStatusDto status = started;
+        for (int i = 0; i < 100 && (status.getStatus().isRunning() || status.getStatus() == BatchStatus.STARTING); i++) {
+            Thread.sleep(100);
+            status = bookFileImportService.getStatus(started.getExecutionId());
+        }
+        return status;
+    }
+
+    private JobExecution startedExecution(Path file) throws Exception {
+        JobParameters parameters = new JobParametersBuilder()
+                .addString(BookImportJobConfig.FILE, file.toAbsolutePath().normalize().toString())
+                .addLong(BookImportJobConfig.FILE_SIZE, Files.size(file))
+                .addLong(BookImportJobConfig.FILE_LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis())
+                .toJobParameters();
+        JobExecution execution = jobRepository.createJobExecution(BookImportJobConfig.BOOK_IMPORT_JOB, parameters);
+        execution.setStartTime(LocalDateTime.now());
+        execution.setStatus(BatchStatus.STARTED);
+        jobRepository.update(execution);
+        StepExecution step = execution.createStepExecution("bookImportStep");
+        step.setStartTime(LocalDateTime.now());
+        step.setStatus(BatchStatus.STARTED);
+        jobRepository.add(step);
+        return execution;
+    }
+
+    private static List<String> csv(int rows) {
+        List<String> lines = new ArrayList<>();
+        lines.add("author,title,category");
+        for (int i = 0; i < rows; i++) {
+            lines.add("Rowling,Potter,Fantasy");
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,194 @@
+package pl.master.test.library.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.context.ActiveProfiles;
+import pl.master.test.library.config.DailyDigestJobConfig;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.dto.MailBatchReport;
+import pl.master.test.library.repository.BookRepository;
+import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.service.EmailService;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"notification.batch.size=5", "notification.partitions=3"})
+@ActiveProfiles("test")
+class DailyDigestJobTest {
+
+    private static final int SUBSCRIBERS = 40;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private Job dailyDigestJob;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private EmailService emailService;
+
+    private final Map<String, AtomicInteger> deliveries = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void init() {
+        bookRepository.save(book("Potter", "Rowling", "Fantasy"));
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            clientRepository.save(client("subscriber" + i, true, Set.of("Rowling"), Set.of()));
+        }
+        clientRepository.save(client("uninterested", true, Set.of("King"), Set.of("Horror")));
+        clientRepository.save(client("disabled", false, Set.of("Rowling"), Set.of("Fantasy")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void run_SubscribedClients_EachDigestDeliveredOnce() throws Exception {
+        deliverAllExcept(to -> false);
+        double mailsBefore = meterRegistry.counter("library.digest.mails", "status", "COMPLETED").count();
+
+        JobExecution execution = jobLauncher.run(dailyDigestJob, parameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertEquals(4, execution.getStepExecutions().size());
+        assertDeliveredOnceToAllSubscribers();
+        assertEquals(SUBSCRIBERS, meterRegistry.counter("library.digest.mails", "status", "COMPLETED").count() - mailsBefore);
+        assertNotNull(meterRegistry.find("library.digest.duration").tag("status", "COMPLETED").timer());
+    }
+
+    @Test
+    void run_TransientMailFailure_ChunkRetried() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        deliverAllExcept(to -> to.equals("subscriber7@library.com") && failed.compareAndSet(false, true));
+
+        JobExecution execution = jobLauncher.run(dailyDigestJob, parameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertEquals(0, writeSkipCount(execution));
+        assertDeliveredOnceToAllSubscribers();
+    }
+
+    @Test
+    void run_PersistentMailFailure_DigestSkipped() throws Exception {
+        deliverAllExcept(to -> to.equals("subscriber7@library.com"));
+
+        JobExecution execution = jobLauncher.run(dailyDigestJob, parameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertEquals(1, writeSkipCount(execution));
+        assertFalse(deliveries.containsKey("subscriber7@library.com"));
+        assertEquals(SUBSCRIBERS - 1, deliveries.size());
+        assertTrue(deliveries.values().stream().allMatch(count -> count.get() == 1));
+    }
+
+    @Test
+    void run_CrashedExecution_RestartResumesFromLastCommittedChunk() throws Exception {
+        AtomicBoolean crashed = new AtomicBoolean();
+        when(emailService.sendBatch(any())).thenAnswer(invocation -> {
+            Collection<SimpleMailMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.getTo()[0].equals("subscriber20@library.com"))
+                    && crashed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Node crashed");
+            }
+            return deliver(messages, to -> false);
+        });
+        JobParameters parameters = parameters();
+
+        JobExecution crashedExecution = jobLauncher.run(dailyDigestJob, parameters);
+        assertEquals(BatchStatus.FAILED, crashedExecution.getStatus());
+        assertFalse(deliveries.containsKey("subscriber20@library.com"));
+
+        JobExecution restartedExecution = jobLauncher.run(dailyDigestJob, parameters);
+
+        assertEquals(BatchStatus.COMPLETED, restartedExecution.getStatus());
+        assertEquals(crashedExecution.getJobInstance().getId(), restartedExecution.getJobInstance().getId());
+        assertDeliveredOnceToAllSubscribers();
+    }
+
+    private void deliverAllExcept(Predicate<String> failing) {
+        when(emailService.sendBatch(any())).thenAnswer(invocation -> deliver(invocation.getArgument(0), failing));
+    }
+
+    private MailBatchReport deliver(Collection<SimpleMailMessage> messages, Predicate<String> failing) {
+        MailBatchReport report = new MailBatchReport();
+        for (SimpleMailMessage message : messages) {
+            String to = message.getTo()[0];
+            if (failing.test(to)) {
+                report.addFailed(message, new MailSendException("Connection refused"));
+            } else {
+                deliveries.computeIfAbsent(to, key -> new AtomicInteger()).incrementAndGet();
+                report.addDelivered(message);
+            }
+        }
+        return report;
+    }
+
+    private void assertDeliveredOnceToAllSubscribers() {
+        assertEquals(SUBSCRIBERS, deliveries.size());
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            AtomicInteger count = deliveries.get("subscriber" + i + "@library.com");
+            assertNotNull(count);
+            assertEquals(1, count.get());
+        }
+    }
+
+    private static long writeSkipCount(JobExecution execution) {
+        return execution.getStepExecutions().stream()
+                .filter(step -> !step.getStepName().equals("dailyDigestStep"))
+                .mapToLong(StepExecution::getWriteSkipCount)
+                .sum();
+    }
+
+    private static JobParameters parameters() {
+        return new JobParametersBuilder()
+                .addLocalDateTime(DailyDigestJobConfig.SINCE, LocalDateTime.now().minusDays(1))
+                .addLocalDateTime(DailyDigestJobConfig.UNTIL, LocalDateTime.now().plusMinutes(1))
+                .toJobParameters();
+    }
+
+    private static Book book(String title, String author, String category) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setCategory(category);
+        return book;
+    }
+
+    private static Client client(String name, boolean enabled, Set<String> authors, Set<String> categories) {
+        return Client.builder()
+                .firstName("Test")
+                .lastName("Test")
+                .email(name + "@library.com")
+                .enabled(enabled)
+                .subscribedAuthors(new HashSet<>(authors))
+                .subscribedCategories(new HashSet<>(categories))
+                .build();
+    }
+}
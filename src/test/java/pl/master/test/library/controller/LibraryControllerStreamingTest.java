@@ -0,0 +1,176 @@
+package pl.master.test.library.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.repository.BookRepository;
+import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.service.EmailService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LibraryControllerStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private final List<Book> books = new ArrayList<>();
+    private final List<Client> clients = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 5; i++) {
+            books.add(bookRepository.save(Book.builder()
+                    .title("Title" + i)
+                    .author("Author" + i)
+                    .category("Category" + i)
+                    .build()));
+        }
+        for (int i = 0; i < 6; i++) {
+            clients.add(clientRepository.save(Client.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("client" + i + "@library.com")
+                    .enabled(i % 2 == 0)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void testFindBooksPage_FirstPage_NextCursorReturned() throws Exception {
+        mockMvc.perform(get("/api/v1/books/page").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].title").value("Title0"))
+                .andExpect(jsonPath("$.nextAfterId").value(books.get(2).getId()));
+    }
+
+    @Test
+    void testFindBooksPage_AfterCursor_RemainingBooksReturned() throws Exception {
+        mockMvc.perform(get("/api/v1/books/page")
+                        .param("afterId", String.valueOf(books.get(2).getId()))
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].title").value("Title3"))
+                .andExpect(jsonPath("$.nextAfterId").value(nullValue()));
+    }
+
+    @Test
+    void testFindBooksPage_LimitTooLarge_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/books/page").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamBooks_NdjsonRequested_OneBookPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/books/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Title0\""));
+        assertTrue(lines[4].contains("\"title\":\"Title4\""));
+    }
+
+    @Test
+    void testStreamBooks_JsonRequested_JsonArrayReturned() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/books/stream").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[1].author").value("Author1"));
+    }
+
+    @Test
+    void testFindClientsPage_EnabledFilter_OnlyEnabledClientsReturned() throws Exception {
+        mockMvc.perform(get("/api/v1/clients/page").param("enabled", "true").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].email").value("client0@library.com"))
+                .andExpect(jsonPath("$.items[1].email").value("client2@library.com"))
+                .andExpect(jsonPath("$.nextAfterId").value(clients.get(2).getId()));
+    }
+
+    @Test
+    void testFindClientsPage_NoFilter_AllClientsReturned() throws Exception {
+        mockMvc.perform(get("/api/v1/clients/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(6)))
+                .andExpect(jsonPath("$.nextAfterId").value(nullValue()));
+    }
+
+    @Test
+    void testStreamClients_DisabledFilter_OneDisabledClientPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/clients/stream")
+                        .param("enabled", "false")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            assertTrue(line.contains("\"enabled\":false"));
+        }
+    }
+
+    @Test
+    void testStreamClients_JsonRequested_JsonArrayReturned() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/clients/stream").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6)))
+                .andExpect(jsonPath("$[5].email").value("client5@library.com"));
+    }
+}
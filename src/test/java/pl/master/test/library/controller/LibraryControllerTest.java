@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,6 +20,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.transaction.annotation.Transactional;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.Client;
+import pl.master.test.library.model.ConfirmationToken;
 import pl.master.test.library.model.command.CreateBookCommand;
 import pl.master.test.library.model.command.CreateClientCommand;
 import pl.master.test.library.model.command.UpdateClientSubscriptionAuthorCommand;
@@ -26,13 +28,16 @@ import pl.master.test.library.model.command.UpdateClientSubscriptionCategoryComm
 import pl.master.test.library.repository.BookRepository;
 import pl.master.test.library.repository.ClientRepository;
 import pl.master.test.library.repository.ConfirmationTokenRepository;
+import pl.master.test.library.service.CatalogueFacetService;
 import pl.master.test.library.service.ClientService;
 import pl.master.test.library.service.EmailService;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.isIn;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -63,6 +68,8 @@ class LibraryControllerTest {
     private ClientService clientService;
     @Autowired
     private ConfirmationTokenRepository confirmationTokenRepository;
+    @Autowired
+    private CatalogueFacetService catalogueFacetService;
 
     @MockBean
     private EmailService emailService;
@@ -242,6 +249,94 @@ class LibraryControllerTest {
                 .andExpect(jsonPath("$.category").value("Fantasy"));
     }
 
+    @Test
+    void testFindAuthorFacets_ResultsInCountsWithETag() throws Exception {
+        catalogueFacetService.reload();
+
+        mockMvc.perform(get("/api/v1/books/facets/authors"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Takie"))
+                .andExpect(jsonPath("$[0].count").value(1));
+    }
+
+    @Test
+    void testFindCategoryFacets_MatchingIfNoneMatch_ResultsInNotModified() throws Exception {
+        catalogueFacetService.reload();
+        String etag = mockMvc.perform(get("/api/v1/books/facets/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/books/facets/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().bytes(new byte[0]));
+
+        catalogueFacetService.bookAdded(1000, "Rowling", "Fantasy");
+        mockMvc.perform(get("/api/v1/books/facets/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Fantasy')].count", hasItem(1)));
+    }
+
+    @Test
+    void testImportBooks_JsonArray_ResultsInPerRowReport() throws Exception {
+        String body = "[{\"author\":\"Rowling\",\"title\":\"Potter\",\"category\":\"Fantasy\"}," +
+                "{\"author\":\"king\",\"title\":\"Shining\",\"category\":\"Horror\"}]";
+
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rows[0].row").value(1))
+                .andExpect(jsonPath("$.rows[1].row").value(2))
+                .andExpect(jsonPath("$.rows[1].violations[0].field").value("author"));
+        assertEquals(2, bookRepository.count());
+    }
+
+    @Test
+    void testImportBooks_Ndjson_ResultsInBooksBeingCreated() throws Exception {
+        String body = "{\"author\":\"Rowling\",\"title\":\"Potter\",\"category\":\"Fantasy\"}\n" +
+                "{\"author\":\"King\",\"title\":\"Shining\",\"category\":\"Horror\"}\n";
+
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rows", hasSize(2)));
+        assertEquals(3, bookRepository.count());
+    }
+
+    @Test
+    void testImportBooks_MalformedJson_StopsAndReportsRow() throws Exception {
+        String body = "{\"author\":\"Rowling\",\"title\":\"Potter\",\"category\":\"Fantasy\"}\n{\"author\":";
+
+        mockMvc.perform(post("/api/v1/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rows[1].violations[0].message").value("MALFORMED_JSON"));
+    }
+
+    @Test
+    void testRegisterClients_Ndjson_ResultsInPerRowReport() throws Exception {
+        String body = "{\"firstName\":\"Jan\",\"lastName\":\"Kowalski\",\"email\":\"jan@client.com\"}\n" +
+                "{\"firstName\":\"Anna\",\"lastName\":\"Nowak\",\"email\":\"nagrzany@client.com\"}\n";
+
+        mockMvc.perform(post("/api/v1/clients/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rows[1].violations[0].message").value("ALREADY_REGISTERED"));
+        assertEquals(2, clientRepository.count());
+    }
+
     @Test
     void testFindClientById_ValidId_ResultsInClientBeingReturned() throws Exception {
         int clientId = client.getId();
@@ -253,6 +348,33 @@ class LibraryControllerTest {
                 .andExpect(jsonPath("$.email").value(client.getEmail()));
     }
 
+    @Test
+    void testConfirm_ValidToken_ResultsInClientBeingEnabled() throws Exception {
+        Client unconfirmed = clientRepository.save(Client.builder()
+                .firstName("Nowy")
+                .lastName("Klient")
+                .email("nowy@client.com")
+                .subscribedAuthors(new HashSet<>())
+                .subscribedCategories(new HashSet<>())
+                .build());
+        ConfirmationToken token = confirmationTokenRepository.save(
+                ConfirmationToken.forClient(unconfirmed, Duration.ofDays(1)));
+
+        mockMvc.perform(get("/api/v1/confirm").param("token", token.getToken()))
+                .andExpect(status().isOk());
+
+        assertEquals(22, token.getToken().length());
+        assertEquals(16, token.getTokenHash().length);
+        assertTrue(confirmationTokenRepository.findByTokenHash(token.getTokenHash()).isEmpty());
+        assertTrue(clientRepository.findClientDtoById(unconfirmed.getId()).orElseThrow().isEnabled());
+    }
+
+    @Test
+    void testConfirm_UnknownToken_ResultsInNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/confirm").param("token", "AAAAAAAAAAAAAAAAAAAAAA"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testFindClientById_NonExistentId_ResultsInNotFound() throws Exception {
         int invalidId = 100;
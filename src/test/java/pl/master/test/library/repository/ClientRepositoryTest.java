@@ -0,0 +1,126 @@
+package pl.master.test.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.service.EmailService;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@ActiveProfiles("test")
+class ClientRepositoryTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 30; i++) {
+            clientRepository.save(client("subscriber" + i, true,
+                    Set.of("Author" + i, "Rowling"), Set.of("Category" + i, "Fantasy")));
+        }
+        clientRepository.save(client("disabled", false, Set.of("Rowling"), Set.of("Fantasy")));
+        clientRepository.save(client("nosubscriptions", true, Set.of(), Set.of()));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findNextSubscriptionsBatch_FullBatch_FixedNumberOfStatements() {
+        List<ClientSubscriptions> batch = clientRepository.findNextSubscriptionsBatch(0, 20);
+
+        assertEquals(20, batch.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        batch.forEach(client -> {
+            assertEquals(2, client.getSubscribedAuthors().size());
+            assertEquals(2, client.getSubscribedCategories().size());
+        });
+    }
+
+    @Test
+    void findNextSubscriptionsBatch_SeekPastLastSeenId_ReturnsRemainingSubscribers() {
+        List<ClientSubscriptions> first = clientRepository.findNextSubscriptionsBatch(0, 20);
+        int lastSeenId = first.get(first.size() - 1).getClientId();
+        statistics.clear();
+
+        List<ClientSubscriptions> second = clientRepository.findNextSubscriptionsBatch(lastSeenId, 20);
+
+        assertEquals(10, second.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertTrue(second.stream().allMatch(client -> client.getClientId() > lastSeenId));
+        assertTrue(second.stream().allMatch(client -> client.getEmail().startsWith("subscriber")));
+    }
+
+    @Test
+    void findNextSubscriptionsBatch_NoMoreSubscribers_SingleStatement() {
+        List<ClientSubscriptions> batch = clientRepository.findNextSubscriptionsBatch(Integer.MAX_VALUE - 1, 20);
+
+        assertTrue(batch.isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addSubscribedCategory_CalledTwice_SecondCallChangesNothing() {
+        int clientId = clientRepository.findNextSubscriptionsBatch(0, 1).get(0).getClientId();
+        statistics.clear();
+
+        assertEquals(1, clientRepository.addSubscribedCategory(clientId, "Horror"));
+        assertEquals(0, clientRepository.addSubscribedCategory(clientId, "Horror"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(clientRepository.findById(clientId).orElseThrow().getSubscribedCategories().contains("Horror"));
+    }
+
+    @Test
+    void removeSubscribedAuthor_CalledTwice_SecondCallChangesNothing() {
+        int clientId = clientRepository.findNextSubscriptionsBatch(0, 1).get(0).getClientId();
+        statistics.clear();
+
+        assertEquals(1, clientRepository.removeSubscribedAuthor(clientId, "Rowling"));
+        assertEquals(0, clientRepository.removeSubscribedAuthor(clientId, "Rowling"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        Client client = clientRepository.findById(clientId).orElseThrow();
+        assertFalse(client.getSubscribedAuthors().contains("Rowling"));
+        assertEquals(1, client.getSubscribedAuthors().size());
+    }
+
+    private static Client client(String name, boolean enabled, Set<String> authors, Set<String> categories) {
+        return Client.builder()
+                .firstName("Test")
+                .lastName("Test")
+                .email(name + "@library.com")
+                .enabled(enabled)
+                .subscribedAuthors(new HashSet<>(authors))
+                .subscribedCategories(new HashSet<>(categories))
+                .build();
+    }
+}
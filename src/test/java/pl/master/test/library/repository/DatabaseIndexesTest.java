@@ -0,0 +1,63 @@
+package pl.master.test.library.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import pl.master.test.library.service.EmailService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DatabaseIndexesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void newBooksQuery_UsesCreatedDateIndex() {
+        String plan = explain("SELECT * FROM book WHERE created_date > CURRENT_TIMESTAMP - INTERVAL '1' DAY ORDER BY id");
+
+        assertTrue(plan.contains("IDX_BOOK_CREATED_DATE"), plan);
+    }
+
+    @Test
+    void booksOfAuthorQuery_UsesAuthorCreatedDateIndex() {
+        String plan = explain("SELECT * FROM book WHERE author = 'Rowling' AND created_date > CURRENT_TIMESTAMP - INTERVAL '1' DAY");
+
+        assertTrue(plan.contains("IDX_BOOK_AUTHOR_CREATED_DATE"), plan);
+    }
+
+    @Test
+    void booksOfCategoryQuery_UsesCategoryCreatedDateIndex() {
+        String plan = explain("SELECT * FROM book WHERE category = 'Fantasy' AND created_date > CURRENT_TIMESTAMP - INTERVAL '1' DAY");
+
+        assertTrue(plan.contains("IDX_BOOK_CATEGORY_CREATED_DATE"), plan);
+    }
+
+    @Test
+    void subscribersOfAuthorQuery_UsesAuthorNameClientIdIndex() {
+        String plan = explain("SELECT DISTINCT c.email FROM client c WHERE c.enabled = TRUE AND EXISTS " +
+                "(SELECT 1 FROM client_subscription_author a WHERE a.client_id = c.id AND a.author_name = 'Rowling')");
+
+        assertTrue(plan.contains("IDX_SUBSCRIPTION_AUTHOR_NAME_CLIENT_ID"), plan);
+    }
+
+    @Test
+    void subscribersOfCategoryQuery_UsesCategoryNameClientIdIndex() {
+        String plan = explain("SELECT DISTINCT c.email FROM client c WHERE c.enabled = TRUE AND EXISTS " +
+                "(SELECT 1 FROM client_subscription_category s WHERE s.client_id = c.id AND s.category_name = 'Fantasy')");
+
+        assertTrue(plan.contains("IDX_SUBSCRIPTION_CATEGORY_NAME_CLIENT_ID"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
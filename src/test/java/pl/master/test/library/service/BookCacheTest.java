@@ -0,0 +1,74 @@
+package pl.master.test.library.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+import pl.master.test.library.config.CacheConfig;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.command.CreateBookCommand;
+import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.repository.BookRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookCacheTest {
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @SpyBean
+    private BookRepository bookRepository;
+    @MockBean
+    private EmailService emailService;
+
+    private CaffeineCache books;
+
+    @BeforeEach
+    void init() {
+        books = (CaffeineCache) cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        books.clear();
+        clearInvocations(bookRepository);
+    }
+
+    @Test
+    void findById_RepeatedLookup_LoadedOnce() {
+        Book book = bookRepository.save(Book.builder().author("Rowling").title("Potter").category("Fantasy").build());
+        CacheStats before = books.getNativeCache().stats();
+
+        BookDto first = bookService.findById(book.getId());
+        BookDto second = bookService.findById(book.getId());
+
+        assertEquals(first, second);
+        verify(bookRepository, times(1)).findById(book.getId());
+        CacheStats stats = books.getNativeCache().stats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void save_NewBook_ServedFromCache() {
+        CreateBookCommand command = new CreateBookCommand();
+        command.setAuthor("King");
+        command.setTitle("It");
+        command.setCategory("Horror");
+
+        BookDto saved = bookService.save(command);
+        BookDto found = bookService.findById(saved.getId());
+
+        assertEquals(saved, found);
+        verify(bookRepository, never()).findById(anyInt());
+    }
+}
@@ -0,0 +1,98 @@
+package pl.master.test.library.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import pl.master.test.library.model.command.CreateBookCommand;
+import pl.master.test.library.model.dto.ImportReport;
+import pl.master.test.library.repository.BookRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "book.import.chunk-size=100"
+})
+@ActiveProfiles("test")
+class BookImporterTest {
+
+    @Autowired
+    private BookImporter bookImporter;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void importBooks_ValidRows_InsertedInJdbcBatches() {
+        List<CreateBookCommand> commands = IntStream.range(0, 1000)
+                .mapToObj(i -> command("Author", "Title", "Category"))
+                .toList();
+
+        ImportReport report = bookImporter.importBooks(commands.iterator());
+
+        assertEquals(1000, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(1000, bookRepository.count());
+        assertEquals(1000, report.getRows().stream().map(ImportReport.RowResult::getId).distinct().count());
+        assertEquals(1000, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 40,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void importBooks_InvalidRows_RejectedWithViolations() {
+        List<CreateBookCommand> commands = new ArrayList<>();
+        commands.add(command("Rowling", "Potter", "Fantasy"));
+        commands.add(command("rowling", "Potter", "Fantasy"));
+        commands.add(null);
+        commands.add(command("King", "Shining", "Horror"));
+
+        ImportReport report = bookImporter.importBooks(commands.iterator());
+
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(2, bookRepository.count());
+        ImportReport.RowResult invalid = report.getRows().stream()
+                .filter(row -> row.getRow() == 2)
+                .findFirst()
+                .orElseThrow();
+        assertNull(invalid.getId());
+        assertEquals("author", invalid.getViolations().get(0).getField());
+    }
+
+    private static CreateBookCommand command(String author, String title, String category) {
+        CreateBookCommand command = new CreateBookCommand();
+        command.setAuthor(author);
+        command.setTitle(title);
+        command.setCategory(category);
+        return command;
+    }
+}
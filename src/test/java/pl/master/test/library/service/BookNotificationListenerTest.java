@@ -0,0 +1,140 @@
+package pl.master.test.library.service;
+
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.test.TestRabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import pl.master.test.library.config.AmqpConfig;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.event.BookAddedEvent;
+import pl.master.test.library.model.event.SubscriptionChangedEvent;
+import pl.master.test.library.model.event.SubscriptionChangedEvent.Kind;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+class BookNotificationListenerTest {
+
+    @Autowired
+    private TestRabbitTemplate rabbitTemplate;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private SubscriberIndex subscriberIndex;
+    @Autowired
+    private Queue subscriptionChangedQueue;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Client authorFan;
+    private Client other;
+
+    @BeforeEach
+    void init() {
+        authorFan = clientRepository.save(client("author.fan@library.com", true, Set.of("Rowling"), Set.of()));
+        clientRepository.save(client("category.fan@library.com", true, Set.of(), Set.of("Fantasy")));
+        clientRepository.save(client("disabled@library.com", false, Set.of("Rowling"), Set.of("Fantasy")));
+        other = clientRepository.save(client("other@library.com", true, Set.of("King"), Set.of("Horror")));
+        clientRepository.flush();
+        subscriberIndex.rebuild();
+    }
+
+    @Test
+    void onBookAdded_MatchingSubscribers_OneMailJobPerRecipient() {
+        rabbitTemplate.convertAndSend(AmqpConfig.BOOK_ADDED_QUEUE,
+                new BookAddedEvent(1, "Rowling", "Potter", "Fantasy"));
+
+        verify(emailService).sendSimpleMessage("author.fan@library.com", "New book added - Potter",
+                "New book available: Potter, Author: Rowling, Category: Fantasy");
+        verify(emailService).sendSimpleMessage("category.fan@library.com", "New book added - Potter",
+                "New book available: Potter, Author: Rowling, Category: Fantasy");
+        verifyNoMoreInteractions(emailService);
+    }
+
+    @Test
+    void onBookAdded_NoSubscribers_NoMailJobs() {
+        rabbitTemplate.convertAndSend(AmqpConfig.BOOK_ADDED_QUEUE,
+                new BookAddedEvent(2, "Tolkien", "Hobbit", "Adventure"));
+
+        verify(emailService, never()).sendSimpleMessage(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void onBookAdded_UnsubscribedOnAnotherNode_NoMailBeforeIndexCatchesUp() {
+        clientRepository.removeSubscribedAuthor(authorFan.getId(), "Rowling");
+
+        rabbitTemplate.convertAndSend(AmqpConfig.BOOK_ADDED_QUEUE,
+                new BookAddedEvent(3, "Rowling", "Potter", "Drama"));
+
+        verify(emailService, never()).sendSimpleMessage(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void onBookAdded_SubscribedOnAnotherNode_ChangeBroadcastAndMailSent() {
+        clientRepository.addSubscribedAuthor(other.getId(), "Rowling");
+        rabbitTemplate.convertAndSend(subscriptionChangedQueue.getName(),
+                new SubscriptionChangedEvent("other-node", other.getId(), Kind.AUTHOR, "Rowling", true));
+
+        rabbitTemplate.convertAndSend(AmqpConfig.BOOK_ADDED_QUEUE,
+                new BookAddedEvent(4, "Rowling", "Potter", "Drama"));
+
+        verify(emailService).sendSimpleMessage("author.fan@library.com", "New book added - Potter",
+                "New book available: Potter, Author: Rowling, Category: Drama");
+        verify(emailService).sendSimpleMessage("other@library.com", "New book added - Potter",
+                "New book available: Potter, Author: Rowling, Category: Drama");
+        verifyNoMoreInteractions(emailService);
+    }
+
+    private static Client client(String email, boolean enabled, Set<String> authors, Set<String> categories) {
+        return Client.builder()
+                .firstName("Test")
+                .lastName("Test")
+                .email(email)
+                .enabled(enabled)
+                .subscribedAuthors(new HashSet<>(authors))
+                .subscribedCategories(new HashSet<>(categories))
+                .build();
+    }
+
+    @TestConfiguration
+    static class InMemoryBrokerConfig {
+
+        @Bean
+        ConnectionFactory connectionFactory() throws Exception {
+            ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+            Connection connection = mock(Connection.class);
+            Channel channel = mock(Channel.class);
+            when(connectionFactory.createConnection()).thenReturn(connection);
+            when(connection.createChannel(anyBoolean())).thenReturn(channel);
+            when(channel.isOpen()).thenReturn(true);
+            return connectionFactory;
+        }
+
+        @Bean
+        TestRabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter amqpMessageConverter) {
+            TestRabbitTemplate template = new TestRabbitTemplate(connectionFactory);
+            template.setMessageConverter(amqpMessageConverter);
+            return template;
+        }
+    }
+}
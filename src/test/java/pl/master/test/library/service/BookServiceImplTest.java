@@ -9,11 +9,19 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import pl.master.test.library.config.AmqpConfig;
+import pl.master.test.library.config.CacheConfig;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.Client;
 import pl.master.test.library.model.command.CreateBookCommand;
 import pl.master.test.library.model.dto.BookDto;
+import pl.master.test.library.model.dto.CursorPageDto;
+import pl.master.test.library.model.event.BookAddedEvent;
 import pl.master.test.library.repository.BookRepository;
 import pl.master.test.library.repository.ClientRepository;
 
@@ -23,6 +31,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 
@@ -40,9 +49,14 @@ class BookServiceImplTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private CatalogueFacetService catalogueFacetService;
+
     @Captor
     private ArgumentCaptor<Book> bookCaptor;
 
+    private CacheManager cacheManager;
+
     private static Book book;
     private static Client client;
 
@@ -62,7 +76,8 @@ class BookServiceImplTest {
                 .lastName("Kowalski")
                 .build();
 
-        bookService = new BookServiceImpl(bookRepository);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE);
+        bookService = new BookServiceImpl(bookRepository, rabbitTemplate, cacheManager, catalogueFacetService);
 
     }
 
@@ -85,6 +100,37 @@ class BookServiceImplTest {
         assertEquals(book.getAuthor(), booksDtoReturned.get(0).getAuthor());
     }
 
+    @Test
+    void findPage_FullPage_NextCursorPointsAtLastBook() {
+        List<BookDto> books = List.of(
+                BookDto.builder().id(3).title("First").build(),
+                BookDto.builder().id(8).title("Second").build());
+        when(bookRepository.findBooksAfter(0, PageRequest.ofSize(2))).thenReturn(books);
+
+        CursorPageDto<BookDto> page = bookService.findPage(0, 2);
+
+        assertEquals(books, page.getItems());
+        assertEquals(8, page.getNextAfterId());
+    }
+
+    @Test
+    void findPage_LastPage_NoNextCursor() {
+        List<BookDto> books = List.of(BookDto.builder().id(12).title("Last").build());
+        when(bookRepository.findBooksAfter(8, PageRequest.ofSize(2))).thenReturn(books);
+
+        CursorPageDto<BookDto> page = bookService.findPage(8, 2);
+
+        assertEquals(books, page.getItems());
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    void findPage_LimitOutOfRange_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.findPage(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> bookService.findPage(0, CursorPageDto.MAX_LIMIT + 1));
+        verifyNoInteractions(bookRepository);
+    }
+
     @Test
     void findById_BookFound_ResultsBookDtoReturned() {
         int bookId = 1;
@@ -117,6 +163,46 @@ class BookServiceImplTest {
         assertEquals(createdBook.getAuthor(), savedBookDto.getAuthor());
     }
 
+    @Test
+    void save_ValidCommand_BookAddedEventPublished() {
+        CreateBookCommand command = new CreateBookCommand();
+        command.setAuthor("Rowling");
+        command.setTitle("Potter");
+        command.setCategory("Fantasy");
+
+        bookService.save(command);
+
+        verify(rabbitTemplate).convertAndSend(AmqpConfig.BOOK_ADDED_QUEUE,
+                new BookAddedEvent(0, "Rowling", "Potter", "Fantasy"));
+    }
+
+    @Test
+    void save_ValidCommand_BookDtoCached() {
+        CreateBookCommand command = new CreateBookCommand();
+        command.setAuthor("Rowling");
+        command.setTitle("Potter");
+        command.setCategory("Fantasy");
+
+        BookDto savedBookDto = bookService.save(command);
+
+        assertEquals(savedBookDto, cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(savedBookDto.getId()).get());
+    }
+
+    @Test
+    void save_BrokerUnavailable_BookStillSaved() {
+        CreateBookCommand command = new CreateBookCommand();
+        command.setAuthor("Rowling");
+        command.setTitle("Potter");
+        command.setCategory("Fantasy");
+        doThrow(new AmqpConnectException(new RuntimeException("Connection refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), any(BookAddedEvent.class));
+
+        BookDto savedBookDto = bookService.save(command);
+
+        verify(bookRepository).save(any(Book.class));
+        assertEquals("Rowling", savedBookDto.getAuthor());
+    }
+
     @Test
     void save_NullCommand_ThrowsIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> bookService.save(null));
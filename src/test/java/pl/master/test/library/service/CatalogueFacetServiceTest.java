@@ -0,0 +1,110 @@
+package pl.master.test.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.master.test.library.model.dto.FacetCountDto;
+import pl.master.test.library.repository.BookRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogueFacetServiceTest {
+    private CatalogueFacetService catalogueFacetService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.countBooksByAuthor()).thenReturn(List.of(
+                new FacetCountDto("Rowling", 2, 3), new FacetCountDto("King", 1, 2)));
+        when(bookRepository.countBooksByCategory()).thenReturn(List.of(new FacetCountDto("Fantasy", 3, 3)));
+        catalogueFacetService = new CatalogueFacetService(bookRepository, new ObjectMapper());
+        catalogueFacetService.reload();
+    }
+
+    @Test
+    void authors_Loaded_SortedByNameWithCounts() {
+        CatalogueFacetService.Snapshot snapshot = catalogueFacetService.authors();
+
+        assertEquals("[{\"name\":\"King\",\"count\":1},{\"name\":\"Rowling\",\"count\":2}]", new String(snapshot.json()));
+        assertTrue(snapshot.etag().startsWith("\""));
+    }
+
+    @Test
+    void authors_NothingChanged_SameSnapshotWithoutQueries() {
+        CatalogueFacetService.Snapshot first = catalogueFacetService.authors();
+
+        assertSame(first, catalogueFacetService.authors());
+        verify(bookRepository, times(1)).countBooksByAuthor();
+    }
+
+    @Test
+    void bookAdded_NewAndExistingNames_CountsUpdatedAndETagChanged() {
+        String authorsEtag = catalogueFacetService.authors().etag();
+        String categoriesEtag = catalogueFacetService.categories().etag();
+
+        catalogueFacetService.bookAdded(4, "Tolkien", "Fantasy");
+
+        assertNotEquals(authorsEtag, catalogueFacetService.authors().etag());
+        assertTrue(new String(catalogueFacetService.authors().json()).contains("{\"name\":\"Tolkien\",\"count\":1}"));
+        assertNotEquals(categoriesEtag, catalogueFacetService.categories().etag());
+        assertEquals("[{\"name\":\"Fantasy\",\"count\":4}]", new String(catalogueFacetService.categories().json()));
+        verify(bookRepository, times(1)).countBooksByAuthor();
+    }
+
+    @Test
+    void reload_BookAddedWhileQueryRuns_IncrementKept() {
+        when(bookRepository.countBooksByAuthor()).thenAnswer(invocation -> {
+            catalogueFacetService.bookAdded(4, "Tolkien", "Fantasy");
+            return List.of(new FacetCountDto("Rowling", 2, 3), new FacetCountDto("King", 1, 2));
+        });
+
+        catalogueFacetService.reload();
+
+        assertTrue(new String(catalogueFacetService.authors().json()).contains("{\"name\":\"Tolkien\",\"count\":1}"));
+        assertEquals("[{\"name\":\"Fantasy\",\"count\":4}]", new String(catalogueFacetService.categories().json()));
+    }
+
+    @Test
+    void reload_BookCountedByQueryAndAddedDuringReload_CountedOnce() {
+        when(bookRepository.countBooksByAuthor()).thenAnswer(invocation -> {
+            catalogueFacetService.bookAdded(4, "Tolkien", "Fantasy");
+            return List.of(new FacetCountDto("Rowling", 2, 3), new FacetCountDto("King", 1, 2),
+                    new FacetCountDto("Tolkien", 1, 4));
+        });
+        when(bookRepository.countBooksByCategory()).thenReturn(List.of(new FacetCountDto("Fantasy", 4, 4)));
+
+        catalogueFacetService.reload();
+
+        assertTrue(new String(catalogueFacetService.authors().json()).contains("{\"name\":\"Tolkien\",\"count\":1}"));
+        assertEquals("[{\"name\":\"Fantasy\",\"count\":4}]", new String(catalogueFacetService.categories().json()));
+    }
+
+    @Test
+    void bookAdded_AfterSnapshotRendered_NewerVersionServed() {
+        CatalogueFacetService.Snapshot first = catalogueFacetService.categories();
+
+        catalogueFacetService.bookAdded(4, "King", "Horror");
+        CatalogueFacetService.Snapshot second = catalogueFacetService.categories();
+
+        assertTrue(second.version() > first.version());
+        assertSame(second, catalogueFacetService.categories());
+    }
+
+    @Test
+    void reload_SameData_SameETag() {
+        String etag = catalogueFacetService.authors().etag();
+
+        catalogueFacetService.reload();
+
+        assertEquals(etag, catalogueFacetService.authors().etag());
+    }
+}
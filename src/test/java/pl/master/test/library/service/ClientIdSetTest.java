@@ -0,0 +1,43 @@
+package pl.master.test.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIdSetTest {
+
+    @Test
+    void add_UnorderedIds_KeptSortedWithoutDuplicates() {
+        ClientIdSet clients = new ClientIdSet();
+
+        IntStream.of(4_200, 700, 1_000_000, 700, 1_300).forEach(clients::add);
+
+        assertArrayEquals(new int[]{700, 1_300, 4_200, 1_000_000}, clients.toArray());
+        assertFalse(clients.isBitmap());
+    }
+
+    @Test
+    void add_DenseIds_SwitchesToBitmap() {
+        ClientIdSet clients = new ClientIdSet();
+
+        IntStream.rangeClosed(1, 100).forEach(clients::add);
+
+        assertTrue(clients.isBitmap());
+        assertArrayEquals(IntStream.rangeClosed(1, 100).toArray(), clients.toArray());
+    }
+
+    @Test
+    void remove_BitmapBecomesSparse_SwitchesBackToArray() {
+        ClientIdSet clients = new ClientIdSet();
+        IntStream.rangeClosed(1, 6400).forEach(clients::add);
+
+        IntStream.range(1, 6400).forEach(clients::remove);
+
+        assertFalse(clients.isBitmap());
+        assertArrayEquals(new int[]{6400}, clients.toArray());
+        clients.remove(6400);
+        assertTrue(clients.isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package pl.master.test.library.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.command.CreateClientCommand;
+import pl.master.test.library.model.dto.ImportReport;
+import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.repository.ConfirmationTokenRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "client.import.chunk-size=100"
+})
+@ActiveProfiles("test")
+class ClientImporterTest {
+
+    @Autowired
+    private ClientImporter clientImporter;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private ConfirmationTokenRepository confirmationTokenRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        confirmationTokenRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void registerClients_ValidRows_ClientsAndTokensInsertedInJdbcBatches() {
+        List<CreateClientCommand> commands = IntStream.range(0, 500)
+                .mapToObj(i -> command("client" + i + "@library.com"))
+                .toList();
+
+        ImportReport report = clientImporter.registerClients(commands.iterator());
+
+        assertEquals(500, report.getImported());
+        assertEquals(500, clientRepository.count());
+        assertEquals(500, confirmationTokenRepository.count());
+        assertEquals(1000, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 60,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+        verify(emailService, times(500)).sendSimpleMessage(anyString(), eq("Confirmation mail"), anyString());
+    }
+
+    @Test
+    void registerClients_DuplicateEmails_RejectedWithoutFailingTheChunk() {
+        clientRepository.save(Client.builder()
+                .firstName("Test")
+                .lastName("Test")
+                .email("taken@library.com")
+                .build());
+        List<CreateClientCommand> commands = List.of(
+                command("taken@library.com"),
+                command("new@library.com"),
+                command("new@library.com"),
+                command("not-an-email"));
+
+        ImportReport report = clientImporter.registerClients(commands.iterator());
+
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals("ALREADY_REGISTERED", report.getRows().get(0).getViolations().get(0).getMessage());
+        assertNotNull(report.getRows().get(1).getId());
+        assertEquals("ALREADY_REGISTERED", report.getRows().get(2).getViolations().get(0).getMessage());
+        assertEquals("email", report.getRows().get(3).getViolations().get(0).getField());
+        assertEquals(2, clientRepository.count());
+        verify(emailService, times(1)).sendSimpleMessage(eq("new@library.com"), anyString(), anyString());
+    }
+
+    @Test
+    void registerClients_ChunkFailsInDatabase_ChunkRowsReportedNotSavedAndEarlierChunksKept() {
+        String tooLongEmail = "a".repeat(64) + "@" + ("b".repeat(63) + ".").repeat(3) + "c".repeat(51) + ".com";
+        List<CreateClientCommand> commands = IntStream.range(0, 150)
+                .mapToObj(i -> command(i == 120 ? tooLongEmail : "client" + i + "@library.com"))
+                .toList();
+
+        ImportReport report = clientImporter.registerClients(commands.iterator());
+
+        assertEquals(312, tooLongEmail.length());
+        assertEquals(100, report.getImported());
+        assertEquals(50, report.getRejected());
+        assertEquals("NOT_SAVED", report.getRows().get(120).getViolations().get(0).getMessage());
+        assertEquals(100, clientRepository.count());
+        verify(emailService, times(100)).sendSimpleMessage(anyString(), eq("Confirmation mail"), anyString());
+    }
+
+    private static CreateClientCommand command(String email) {
+        CreateClientCommand command = new CreateClientCommand();
+        command.setFirstName("Jan");
+        command.setLastName("Kowalski");
+        command.setEmail(email);
+        return command;
+    }
+}
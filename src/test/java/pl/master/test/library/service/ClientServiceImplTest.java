@@ -4,30 +4,34 @@ import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import pl.master.test.library.model.Book;
 import pl.master.test.library.model.Client;
+import pl.master.test.library.model.ConfirmationToken;
 import pl.master.test.library.model.command.CreateClientCommand;
 import pl.master.test.library.model.command.UpdateClientCommand;
 import pl.master.test.library.model.command.UpdateClientSubscriptionAuthorCommand;
 import pl.master.test.library.model.command.UpdateClientSubscriptionCategoryCommand;
 import pl.master.test.library.model.dto.ClientDto;
+import pl.master.test.library.model.dto.CursorPageDto;
+import pl.master.test.library.model.dto.SubscriptionChangeDto;
 import pl.master.test.library.repository.BookRepository;
 import pl.master.test.library.repository.ClientRepository;
 import pl.master.test.library.repository.ConfirmationTokenRepository;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ClientServiceImplTest {
 
-    @InjectMocks
     private ClientServiceImpl clientService;
 
     @Mock
@@ -37,6 +41,8 @@ class ClientServiceImplTest {
 
     @Mock
     private ConfirmationTokenRepository confirmationTokenRepository;
+    @Mock
+    private SubscriberIndex subscriberIndex;
 
     @Mock
     private BookRepository bookRepository;
@@ -47,6 +53,8 @@ class ClientServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        clientService = new ClientServiceImpl(clientRepository, registrationService, confirmationTokenRepository,
+                subscriberIndex, Duration.ofDays(1));
 
         Set<Book> books = new HashSet<>();
         books.add(book);
@@ -67,6 +75,35 @@ class ClientServiceImplTest {
                 .build();
     }
 
+    @Test
+    void findPage_EnabledFilter_PassedToRepository() {
+        List<ClientDto> clients = List.of(
+                ClientDto.builder().id(4).enabled(true).build(),
+                ClientDto.builder().id(9).enabled(true).build());
+        when(clientRepository.findClientsAfter(0, true, PageRequest.ofSize(2))).thenReturn(clients);
+
+        CursorPageDto<ClientDto> page = clientService.findPage(0, 2, true);
+
+        assertEquals(clients, page.getItems());
+        assertEquals(9, page.getNextAfterId());
+    }
+
+    @Test
+    void findPage_LastPage_NoNextCursor() {
+        when(clientRepository.findClientsAfter(9, null, PageRequest.ofSize(2)))
+                .thenReturn(List.of(ClientDto.builder().id(11).build()));
+
+        CursorPageDto<ClientDto> page = clientService.findPage(9, 2, null);
+
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    void findPage_LimitOutOfRange_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> clientService.findPage(0, -1, null));
+        verifyNoInteractions(clientRepository);
+    }
+
     @Test
     void findAll_ResultsInClientDtoListBeingReturned() {
         ClientDto clientDto = ClientDto.builder()
@@ -138,45 +175,46 @@ class ClientServiceImplTest {
 
     @Test
     void subscribeToCategory_AccountNotEnabled_ThrowsIllegalArgumentException() {
-
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-        client.setEnabled(false);
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(false)));
 
         assertThrows(IllegalArgumentException.class, () -> clientService.subscribeToCategory(clientId, command));
+        verify(clientRepository, never()).addSubscribedCategory(anyInt(), anyString());
     }
 
-
     @Test
-    void subscribeToCategory_ClientAlreadySubscribed_ThrowsIllegalArgumentException() {
-
+    void subscribeToCategory_ClientAlreadySubscribed_NothingChanged() {
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-        client.setEnabled(true);
-        client.getSubscribedCategories().add("Fantasy");
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(true)));
+        when(clientRepository.addSubscribedCategory(clientId, "Fantasy")).thenReturn(0);
 
+        SubscriptionChangeDto result = clientService.subscribeToCategory(clientId, command);
 
-        assertThrows(IllegalArgumentException.class, () -> clientService.subscribeToCategory(clientId, command));
+        assertFalse(result.isChanged());
+        verifyNoInteractions(registrationService, subscriberIndex);
     }
 
     @Test
     void subscribeToCategory_ValidClientIdAndCategory_ClientSuccessfullySubscribed() {
-
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-        client.setEnabled(true);
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
-
-
-        clientService.subscribeToCategory(clientId, command);
-
-        assertTrue(clientService.getSubscribedCategories(clientId).contains("Fantasy"));
+        ClientDto clientDto = clientDto(true);
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto));
+        when(clientRepository.addSubscribedCategory(clientId, "Fantasy")).thenReturn(1);
+
+        SubscriptionChangeDto result = clientService.subscribeToCategory(clientId, command);
+
+        assertTrue(result.isChanged());
+        assertEquals("Fantasy", result.getSubscription());
+        verify(registrationService).subscribeClientToCategory(clientDto, "Fantasy");
+        verify(subscriberIndex).categorySubscribed(clientId, "Fantasy");
+        verify(clientRepository, never()).findById(anyInt());
+        verify(clientRepository, never()).save(any());
     }
 
     @Test
@@ -184,11 +222,10 @@ class ClientServiceImplTest {
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-
-        when(clientRepository.findById(clientId)).thenReturn(Optional.empty());
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> clientService.unsubscribeFromCategory(clientId, command));
-        verify(clientRepository).findById(clientId);
+        verify(clientRepository, never()).removeSubscribedCategory(anyInt(), anyString());
     }
 
     @Test
@@ -196,25 +233,23 @@ class ClientServiceImplTest {
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-        client.setEnabled(false);
-
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(false)));
 
         assertThrows(IllegalArgumentException.class, () -> clientService.unsubscribeFromCategory(clientId, command));
-        verify(clientRepository).findById(clientId);
     }
 
     @Test
-    void unsubscribeFromCategory_ClientNotSubscribedToCategory_ThrowsIllegalArgumentException() {
+    void unsubscribeFromCategory_ClientNotSubscribedToCategory_NothingChanged() {
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-        client.setEnabled(true);
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(true)));
+        when(clientRepository.removeSubscribedCategory(clientId, "Fantasy")).thenReturn(0);
 
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        SubscriptionChangeDto result = clientService.unsubscribeFromCategory(clientId, command);
 
-        assertThrows(IllegalArgumentException.class, () -> clientService.unsubscribeFromCategory(clientId, command));
-        verify(clientRepository).findById(clientId);
+        assertFalse(result.isChanged());
+        verifyNoInteractions(registrationService, subscriberIndex);
     }
 
     @Test
@@ -222,21 +257,16 @@ class ClientServiceImplTest {
         int clientId = 1;
         UpdateClientSubscriptionCategoryCommand command = new UpdateClientSubscriptionCategoryCommand();
         command.setSubscribedCategory("Fantasy");
-        client.setEnabled(true);
-        client.getSubscribedCategories().add("Fantasy");
-
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
+        ClientDto clientDto = clientDto(true);
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto));
+        when(clientRepository.removeSubscribedCategory(clientId, "Fantasy")).thenReturn(1);
 
-        ClientDto returnedDto = clientService.unsubscribeFromCategory(clientId, command);
+        SubscriptionChangeDto result = clientService.unsubscribeFromCategory(clientId, command);
 
-        assertFalse(client.getSubscribedCategories().contains("Fantasy"));
-        assertEquals(client.getId(), returnedDto.getId());
-        assertEquals(client.getFirstName(), returnedDto.getFirstName());
-        assertEquals(client.getLastName(), returnedDto.getLastName());
-        assertEquals(client.getEmail(), returnedDto.getEmail());
-        verify(clientRepository).findById(clientId);
-        verify(clientRepository).save(client);
+        assertTrue(result.isChanged());
+        assertEquals(clientId, result.getClientId());
+        verify(registrationService).unsubscribeClientToCategory(clientDto, "Fantasy");
+        verify(subscriberIndex).categoryUnsubscribed(clientId, "Fantasy");
     }
 
     @Test
@@ -244,11 +274,9 @@ class ClientServiceImplTest {
         int clientId = 1;
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
         command.setSubscribedAuthor("Rowling");
-
-        when(clientRepository.findById(clientId)).thenReturn(Optional.empty());
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> clientService.subscribeToAuthor(clientId, command));
-        verify(clientRepository).findById(clientId);
     }
 
     @Test
@@ -256,92 +284,80 @@ class ClientServiceImplTest {
         int clientId = 1;
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
         command.setSubscribedAuthor("Rowling");
-        client.setEnabled(false);
-
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(false)));
 
         assertThrows(IllegalArgumentException.class, () -> clientService.subscribeToAuthor(clientId, command));
-        verify(clientRepository).findById(clientId);
+        verify(clientRepository, never()).addSubscribedAuthor(anyInt(), anyString());
     }
 
-
     @Test
     void subscribeToAuthor_SuccessfulSubscription() {
         int clientId = 1;
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
-        command.setSubscribedAuthor("J.K. Rowling");
-        client.setEnabled(true);
-
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
+        command.setSubscribedAuthor("Rowling");
+        ClientDto clientDto = clientDto(true);
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto));
+        when(clientRepository.addSubscribedAuthor(clientId, "Rowling")).thenReturn(1);
 
-        ClientDto returnedDto = clientService.subscribeToAuthor(clientId, command);
+        SubscriptionChangeDto result = clientService.subscribeToAuthor(clientId, command);
 
-        assertTrue(client.getSubscribedAuthors().contains("J.K. Rowling"));
-        assertEquals(client.getId(), returnedDto.getId());
-        assertEquals(client.getFirstName(), returnedDto.getFirstName());
-        assertEquals(client.getLastName(), returnedDto.getLastName());
-        assertEquals(client.getEmail(), returnedDto.getEmail());
-        verify(clientRepository).findById(clientId);
-        verify(clientRepository).save(client);
+        assertTrue(result.isChanged());
+        verify(registrationService).subscribeClientToAuthor(clientDto, "Rowling");
+        verify(subscriberIndex).authorSubscribed(clientId, "Rowling");
     }
 
-
-
     @Test
-    void subscribeToAuthor_ClientAlreadySubscribedToAuthor_ThrowsIllegalArgumentException() {
+    void subscribeToAuthor_ClientAlreadySubscribedToAuthor_NothingChanged() {
         int clientId = 1;
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
         command.setSubscribedAuthor("Rowling");
-        client.setEnabled(true);
-        client.getSubscribedAuthors().add("Rowling");
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(true)));
+        when(clientRepository.addSubscribedAuthor(clientId, "Rowling")).thenReturn(0);
 
+        SubscriptionChangeDto result = clientService.subscribeToAuthor(clientId, command);
 
-        assertThrows(IllegalArgumentException.class, () -> clientService.subscribeToAuthor(clientId, command));
-        verify(clientRepository).findById(clientId);
+        assertFalse(result.isChanged());
+        verifyNoInteractions(registrationService, subscriberIndex);
     }
 
     @Test
     void unsubscribeFromAuthor_ClientNotEnabled_ThrowsIllegalArgumentException() {
         int clientId = 1;
-        client.setEnabled(false);
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
         command.setSubscribedAuthor("Rowling");
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(false)));
 
         assertThrows(IllegalArgumentException.class, () -> clientService.unsubscribeFromAuthor(clientId, command));
-        verify(clientRepository).findById(clientId);
     }
 
     @Test
-    void unsubscribeFromAuthor_ClientNotSubscribedToAuthor_ThrowsIllegalArgumentException() {
+    void unsubscribeFromAuthor_ClientNotSubscribedToAuthor_NothingChanged() {
         int clientId = 1;
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
         command.setSubscribedAuthor("Rowling");
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto(true)));
+        when(clientRepository.removeSubscribedAuthor(clientId, "Rowling")).thenReturn(0);
 
-        assertThrows(IllegalArgumentException.class, () -> clientService.unsubscribeFromAuthor(clientId, command));
-        verify(clientRepository).findById(clientId);
+        SubscriptionChangeDto result = clientService.unsubscribeFromAuthor(clientId, command);
+
+        assertFalse(result.isChanged());
+        verifyNoInteractions(registrationService, subscriberIndex);
     }
 
     @Test
     void unsubscribeFromAuthor_SuccessfulUnsubscription() {
         int clientId = 1;
-        client.getSubscribedAuthors().add("Rowling");
-        client.setEnabled(true);
         UpdateClientSubscriptionAuthorCommand command = new UpdateClientSubscriptionAuthorCommand();
         command.setSubscribedAuthor("Rowling");
+        ClientDto clientDto = clientDto(true);
+        when(clientRepository.findClientDtoById(clientId)).thenReturn(Optional.of(clientDto));
+        when(clientRepository.removeSubscribedAuthor(clientId, "Rowling")).thenReturn(1);
 
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(clientRepository.save(any(Client.class))).thenReturn(client);
+        SubscriptionChangeDto result = clientService.unsubscribeFromAuthor(clientId, command);
 
-        ClientDto result = clientService.unsubscribeFromAuthor(clientId, command);
-        assertNotNull(result);
-        assertFalse(client.getSubscribedAuthors().contains("Rowling"));
-        verify(clientRepository).findById(clientId);
-        verify(clientRepository).save(client);
-        verify(registrationService).unsubscribeClientAuthor(client, "Rowling");
+        assertTrue(result.isChanged());
+        verify(registrationService).unsubscribeClientAuthor(clientDto, "Rowling");
+        verify(subscriberIndex).authorUnsubscribed(clientId, "Rowling");
     }
 
     @Test
@@ -431,9 +447,27 @@ class ClientServiceImplTest {
         verify(clientRepository).findById(clientId);
     }
 
+    @Test
+    void confirm_ValidToken_ClientEnabledAndTokenDeleted() {
+        byte[] tokenHash = ConfirmationToken.hash("token");
+        when(clientRepository.enableByConfirmationToken(aryEq(tokenHash), any())).thenReturn(Optional.of(1));
 
+        clientService.confirm("token");
 
+        verify(confirmationTokenRepository).deleteByTokenHash(aryEq(tokenHash));
+        verify(clientRepository, never()).save(any());
+    }
 
+    @Test
+    void confirm_UnknownOrExpiredToken_ThrowsEntityNotFoundException() {
+        when(clientRepository.enableByConfirmationToken(any(), any())).thenReturn(Optional.empty());
 
+        assertThrows(EntityNotFoundException.class, () -> clientService.confirm("token"));
+        verify(confirmationTokenRepository, never()).deleteByTokenHash(any());
+    }
 
-}
\ No newline at end of file
+    private ClientDto clientDto(boolean enabled) {
+        client.setEnabled(enabled);
+        return ClientDto.fromEntity(client);
+    }
+}
@@ -0,0 +1,105 @@
+package pl.master.test.library.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import pl.master.test.library.model.Client;
+import pl.master.test.library.model.ConfirmationToken;
+import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.repository.ConfirmationTokenRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "confirmation.token.sweep-batch-size=2")
+@Transactional
+@ActiveProfiles("test")
+class ConfirmationTokenSweeperTest {
+
+    @Autowired
+    private ConfirmationTokenSweeper confirmationTokenSweeper;
+    @Autowired
+    private ConfirmationTokenRepository confirmationTokenRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Client client;
+
+    @BeforeEach
+    void init() {
+        client = clientRepository.save(Client.builder()
+                .firstName("Test")
+                .lastName("Test")
+                .email("sweeper@library.com")
+                .subscribedAuthors(new HashSet<>())
+                .subscribedCategories(new HashSet<>())
+                .build());
+    }
+
+    @Test
+    void sweep_ExpiredTokens_DeletedInBatchesAndValidTokenKept() {
+        for (int i = 0; i < 5; i++) {
+            confirmationTokenRepository.save(ConfirmationToken.forClient(client, Duration.ofDays(-1)));
+        }
+        ConfirmationToken valid = confirmationTokenRepository.save(ConfirmationToken.forClient(client, Duration.ofDays(1)));
+
+        assertEquals(5, confirmationTokenSweeper.sweep());
+
+        assertEquals(1, confirmationTokenRepository.count());
+        assertTrue(confirmationTokenRepository.findByTokenHash(valid.getTokenHash()).isPresent());
+    }
+
+    @Test
+    void save_TokenWithoutExpiry_RejectedByDatabase() {
+        ConfirmationToken token = ConfirmationToken.forClient(client, Duration.ofDays(1));
+        token.setExpiresAt(null);
+
+        assertThrows(DataIntegrityViolationException.class, () -> confirmationTokenRepository.saveAndFlush(token));
+    }
+
+    @Test
+    void tokenHashBackfill_LegacyUuidToken_MatchesHashOfConfirmationParameter() {
+        String legacyToken = UUID.randomUUID().toString();
+
+        byte[] backfilled = (byte[]) entityManager
+                .createNativeQuery("SELECT SUBSTRING(HASH('SHA-256', ?1) FROM 1 FOR 16)")
+                .setParameter(1, legacyToken)
+                .getSingleResult();
+
+        assertArrayEquals(ConfirmationToken.hash(legacyToken), backfilled);
+    }
+
+    @Test
+    void enableByConfirmationToken_ValidToken_ReturnsClientId() {
+        ConfirmationToken token = confirmationTokenRepository.save(ConfirmationToken.forClient(client, Duration.ofDays(1)));
+
+        assertEquals(client.getId(), clientRepository.enableByConfirmationToken(token.getTokenHash(), LocalDateTime.now())
+                .orElseThrow());
+        entityManager.clear();
+        assertTrue(clientRepository.findById(client.getId()).orElseThrow().isEnabled());
+    }
+
+    @Test
+    void enableByConfirmationToken_ExpiredToken_NothingUpdated() {
+        ConfirmationToken token = confirmationTokenRepository.save(ConfirmationToken.forClient(client, Duration.ofDays(-1)));
+
+        assertTrue(clientRepository.enableByConfirmationToken(token.getTokenHash(), LocalDateTime.now()).isEmpty());
+        entityManager.clear();
+        assertFalse(clientRepository.findById(client.getId()).orElseThrow().isEnabled());
+    }
+}
@@ -3,23 +3,22 @@ package pl.master.test.library.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.test.context.TestPropertySource;
-import pl.master.test.library.model.Book;
-import pl.master.test.library.model.Client;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRestartException;
+import pl.master.test.library.batch.AbandonedJobExecutions;
+import pl.master.test.library.config.DailyDigestJobConfig;
+import pl.master.test.library.model.NotificationWatermark;
 import pl.master.test.library.repository.BookRepository;
-import pl.master.test.library.repository.ClientRepository;
+import pl.master.test.library.repository.NotificationWatermarkRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,90 +26,194 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DailyNotificationServiceTest {
-    @InjectMocks
     private DailyNotificationService dailyNotificationService;
 
     @Mock
     private BookRepository bookRepository;
 
     @Mock
-    private ClientRepository clientRepository;
+    private NotificationWatermarkRepository watermarkRepository;
 
     @Mock
-    private RegistrationService registrationService;
+    private JobLauncher jobLauncher;
+
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private Job dailyDigestJob;
+
+    @Mock
+    private SchedulerLock schedulerLock;
+
+    @Mock
+    private AbandonedJobExecutions abandonedJobExecutions;
 
     @BeforeEach
     void setUp() {
-        dailyNotificationService.setBatchSize(10);
+        dailyNotificationService = new DailyNotificationService(bookRepository, watermarkRepository, jobLauncher,
+                jobExplorer, dailyDigestJob, schedulerLock, abandonedJobExecutions);
+        dailyNotificationService.setSettleLag(Duration.ofMinutes(1));
+        dailyNotificationService.setInitialLookback(Duration.ofDays(1));
+        lenient().when(dailyDigestJob.getName()).thenReturn(DailyDigestJobConfig.DAILY_DIGEST_JOB);
+        lenient().when(schedulerLock.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE)).thenReturn(true);
+    }
+
+    @Test
+    void sendDailyNotifications_LeaseHeldByAnotherNode_NothingDone() {
+        when(schedulerLock.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE)).thenReturn(false);
+
+        dailyNotificationService.sendDailyNotifications();
+
+        verifyNoInteractions(jobExplorer, jobLauncher, bookRepository, watermarkRepository);
+        verify(schedulerLock, never()).release(any());
+    }
+
+    @Test
+    void sendDailyNotifications_LeaseAcquired_ReleasedAfterRun() throws Exception {
+        when(bookRepository.existsCreatedBetween(any(), any())).thenReturn(true);
+        when(jobLauncher.run(any(), any())).thenThrow(new IllegalStateException("Forced Exception"));
+
+        assertThrows(IllegalStateException.class, () -> dailyNotificationService.sendDailyNotifications());
+
+        verify(schedulerLock).release(DailyNotificationService.DAILY_DIGEST_LEASE);
+    }
+
+    @Test
+    void sendDailyNotifications_NoNewBooks_JobNotLaunchedAndWatermarkAdvanced() {
+        LocalDateTime processedUntil = LocalDateTime.now().minusHours(2);
+        when(watermarkRepository.findById(DailyNotificationService.DAILY_DIGEST_WATERMARK))
+                .thenReturn(Optional.of(watermark(processedUntil)));
+        when(bookRepository.existsCreatedBetween(any(), any())).thenReturn(false);
+
+        dailyNotificationService.sendDailyNotifications();
+
+        verifyNoInteractions(jobLauncher);
+        ArgumentCaptor<NotificationWatermark> saved = ArgumentCaptor.forClass(NotificationWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertTrue(saved.getValue().getProcessedUntil().isAfter(processedUntil));
+    }
+
+    @Test
+    void sendDailyNotifications_NoWatermark_JobLaunchedForInitialLookback() throws Exception {
+        when(watermarkRepository.findById(DailyNotificationService.DAILY_DIGEST_WATERMARK)).thenReturn(Optional.empty());
+        when(bookRepository.existsCreatedBetween(any(), any())).thenReturn(true);
+        when(jobLauncher.run(any(), any())).thenReturn(execution(BatchStatus.FAILED, new JobParameters()));
+        LocalDateTime before = LocalDateTime.now().minusDays(1);
+
+        dailyNotificationService.sendDailyNotifications();
+
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobLauncher).run(eq(dailyDigestJob), parameters.capture());
+        LocalDateTime since = parameters.getValue().getLocalDateTime(DailyDigestJobConfig.SINCE);
+        LocalDateTime until = parameters.getValue().getLocalDateTime(DailyDigestJobConfig.UNTIL);
+        assertFalse(since.isBefore(before));
+        assertFalse(since.isAfter(LocalDateTime.now().minusDays(1)));
+        assertFalse(until.isAfter(LocalDateTime.now().minusMinutes(1)));
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    void sendDailyNotifications_Watermark_JobLaunchedFromWatermarkAndWatermarkAdvanced() throws Exception {
+        LocalDateTime processedUntil = LocalDateTime.now().minusHours(2);
+        when(watermarkRepository.findById(DailyNotificationService.DAILY_DIGEST_WATERMARK))
+                .thenReturn(Optional.of(watermark(processedUntil)));
+        when(bookRepository.existsCreatedBetween(any(), any())).thenReturn(true);
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        when(jobLauncher.run(eq(dailyDigestJob), parameters.capture()))
+                .thenAnswer(invocation -> execution(BatchStatus.COMPLETED, invocation.getArgument(1)));
+
+        dailyNotificationService.sendDailyNotifications();
+
+        assertEquals(processedUntil, parameters.getValue().getLocalDateTime(DailyDigestJobConfig.SINCE));
+        ArgumentCaptor<NotificationWatermark> saved = ArgumentCaptor.forClass(NotificationWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertEquals(parameters.getValue().getLocalDateTime(DailyDigestJobConfig.UNTIL),
+                saved.getValue().getProcessedUntil());
+    }
+
+    @Test
+    void sendDailyNotifications_WatermarkWithinSettleLag_NothingQueried() {
+        when(watermarkRepository.findById(DailyNotificationService.DAILY_DIGEST_WATERMARK))
+                .thenReturn(Optional.of(watermark(LocalDateTime.now())));
+
+        dailyNotificationService.sendDailyNotifications();
+
+        verifyNoInteractions(bookRepository, jobLauncher);
     }
 
     @Test
-    void sendDailyNotifications_NoSubscribedClients() {
-        Page<Client> emptyPage = new PageImpl<>(Collections.emptyList());
-        when(clientRepository.findAllByEnabledTrueAndSubscriptionsNotEmpty(any())).thenReturn(emptyPage);
+    void sendDailyNotifications_LastExecutionFailed_RestartedWithSameParameters() throws Exception {
+        JobParameters failedParameters = new JobParametersBuilder()
+                .addLocalDateTime(DailyDigestJobConfig.SINCE, LocalDateTime.of(2023, 10, 1, 12, 0))
+                .addLocalDateTime(DailyDigestJobConfig.UNTIL, LocalDateTime.of(2023, 10, 2, 12, 0))
+                .toJobParameters();
+        JobInstance instance = new JobInstance(1L, DailyDigestJobConfig.DAILY_DIGEST_JOB);
+        when(jobExplorer.getLastJobInstance(DailyDigestJobConfig.DAILY_DIGEST_JOB)).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(execution(BatchStatus.FAILED, failedParameters));
+        when(watermarkRepository.findById(DailyNotificationService.DAILY_DIGEST_WATERMARK)).thenReturn(Optional.empty());
+        when(jobLauncher.run(any(), any())).thenReturn(execution(BatchStatus.COMPLETED, failedParameters));
 
         dailyNotificationService.sendDailyNotifications();
 
-        verify(clientRepository, atMostOnce()).findAllByEnabledTrueAndSubscriptionsNotEmpty(any());
-        verifyNoMoreInteractions(bookRepository, registrationService);
+        verify(jobLauncher).run(dailyDigestJob, failedParameters);
+        verifyNoInteractions(bookRepository);
+        ArgumentCaptor<NotificationWatermark> saved = ArgumentCaptor.forClass(NotificationWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertEquals(LocalDateTime.of(2023, 10, 2, 12, 0), saved.getValue().getProcessedUntil());
     }
 
     @Test
-    void sendDailyNotifications_SubscribedClients_NoNewBooks() {
-        Client client = new Client();
-        client.setSubscribedAuthors(Collections.singleton("Author"));
-        client.setSubscribedCategories(Collections.singleton("Category"));
-        when(clientRepository.findAllByEnabledTrueAndSubscriptionsNotEmpty(any())).thenReturn(new PageImpl<>(List.of(client)));
-        when(bookRepository.findAllByAuthorOrCategoryInAndCreatedDateAfter(anySet(), anySet(), any())).thenReturn(Collections.emptyList());
+    void sendDailyNotifications_LastExecutionStillStarted_MarkedFailedAndRestarted() throws Exception {
+        JobParameters abandonedParameters = new JobParametersBuilder()
+                .addLocalDateTime(DailyDigestJobConfig.SINCE, LocalDateTime.of(2023, 10, 1, 12, 0))
+                .addLocalDateTime(DailyDigestJobConfig.UNTIL, LocalDateTime.of(2023, 10, 2, 12, 0))
+                .toJobParameters();
+        JobInstance instance = new JobInstance(1L, DailyDigestJobConfig.DAILY_DIGEST_JOB);
+        JobExecution abandoned = execution(BatchStatus.STARTED, abandonedParameters);
+        when(jobExplorer.getLastJobInstance(DailyDigestJobConfig.DAILY_DIGEST_JOB)).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(abandoned);
+        when(jobLauncher.run(any(), any())).thenReturn(execution(BatchStatus.COMPLETED, abandonedParameters));
 
         dailyNotificationService.sendDailyNotifications();
 
-        verify(registrationService, never()).newLibraryPosition(anyString(), anyString());
+        verify(abandonedJobExecutions).markFailed(abandoned);
+        verify(jobLauncher).run(dailyDigestJob, abandonedParameters);
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
-    void sendDailyNotifications_SubscribedClients_WithNewBooks() {
-        Client client = new Client();
-        client.setEmail("email@example.com");
-        client.setSubscribedAuthors(Collections.singleton("Author"));
-        client.setSubscribedCategories(Collections.singleton("Category"));
-        Book book = new Book();
-        book.setTitle("Title");
-        book.setAuthor("Author");
-        book.setCategory("Category");
-        when(clientRepository.findAllByEnabledTrueAndSubscriptionsNotEmpty(any())).thenReturn(new PageImpl<>(List.of(client)));
-        when(bookRepository.findAllByAuthorOrCategoryInAndCreatedDateAfter(anySet(), anySet(), any())).thenReturn(List.of(book));
+    void sendDailyNotifications_LastExecutionCompleted_NewInstanceLaunched() throws Exception {
+        JobParameters completedParameters = new JobParametersBuilder()
+                .addLocalDateTime(DailyDigestJobConfig.SINCE, LocalDateTime.of(2023, 10, 1, 12, 0))
+                .toJobParameters();
+        JobInstance instance = new JobInstance(1L, DailyDigestJobConfig.DAILY_DIGEST_JOB);
+        when(jobExplorer.getLastJobInstance(DailyDigestJobConfig.DAILY_DIGEST_JOB)).thenReturn(instance);
+        when(jobExplorer.getLastJobExecution(instance)).thenReturn(execution(BatchStatus.COMPLETED, completedParameters));
+        when(bookRepository.existsCreatedBetween(any(), any())).thenReturn(true);
+        when(jobLauncher.run(any(), any())).thenReturn(execution(BatchStatus.FAILED, new JobParameters()));
 
         dailyNotificationService.sendDailyNotifications();
 
-        verify(registrationService, times(1)).newLibraryPosition(anyString(), anyString());
-        verify(clientRepository, times(1)).findAllByEnabledTrueAndSubscriptionsNotEmpty(any());
-        verify(bookRepository, times(1)).findAllByAuthorOrCategoryInAndCreatedDateAfter(anySet(), anySet(), any());
+        verify(jobLauncher, never()).run(dailyDigestJob, completedParameters);
+        verify(jobLauncher, times(1)).run(eq(dailyDigestJob), any());
     }
 
     @Test
-    public void testTransactionalBehaviorInScheduledMethod() {
-        Client client = new Client();
-        client.setEmail("test@example.com");
-        client.setFirstName("Test");
-        client.setLastName("Test");
-        client.setEnabled(true);
-        client.setSubscribedAuthors(new HashSet<>(Collections.singleton("Test")));
-        client.setSubscribedCategories(new HashSet<>(Collections.singleton("Test")));
-
-        Book book = new Book();
-        book.setTitle("Test");
-        book.setAuthor("Test");
-        book.setCategory("Test");
-
-        when(clientRepository.findAllByEnabledTrueAndSubscriptionsNotEmpty(any()))
-                .thenReturn(new PageImpl<>(List.of(client)));
-        when(bookRepository.findAllByAuthorOrCategoryInAndCreatedDateAfter(anySet(), anySet(), any()))
-                .thenReturn(List.of(book));
-
-        doThrow(new RuntimeException("Forced Exception"))
-                .when(registrationService).newLibraryPosition(anyString(), anyString());
-
-        assertThrows(RuntimeException.class, () -> dailyNotificationService.sendDailyNotifications());
+    void sendDailyNotifications_LaunchRejected_ExceptionNotPropagated() throws Exception {
+        when(bookRepository.existsCreatedBetween(any(), any())).thenReturn(true);
+        when(jobLauncher.run(any(), any())).thenThrow(new JobRestartException("Forced Exception"));
+
+        assertDoesNotThrow(() -> dailyNotificationService.sendDailyNotifications());
+    }
+
+    private static NotificationWatermark watermark(LocalDateTime processedUntil) {
+        return new NotificationWatermark(DailyNotificationService.DAILY_DIGEST_WATERMARK, processedUntil);
+    }
+
+    private static JobExecution execution(BatchStatus status, JobParameters parameters) {
+        JobExecution execution = new JobExecution(1L, parameters);
+        execution.setStatus(status);
+        return execution;
     }
-}
\ No newline at end of file
+}
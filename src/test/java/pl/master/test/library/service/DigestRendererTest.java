@@ -0,0 +1,87 @@
+package pl.master.test.library.service;
+
+import org.junit.jupiter.api.Test;
+import pl.master.test.library.model.Book;
+import pl.master.test.library.model.dto.ClientSubscriptions;
+import pl.master.test.library.model.dto.DailyDigest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestRendererTest {
+
+    private final DigestRenderer renderer = DigestRenderer.of(NewBooksIndex.of(List.of(
+            book(1, "First", "Author", "Other"),
+            book(2, "Second", "Other", "Category"),
+            book(3, "Third", "Other", "Other"))), 100);
+
+    @Test
+    void render_MatchingBooks_LinesInCatalogueOrder() {
+        ClientSubscriptions client = client("email@example.com", Set.of("Author"), Set.of("Category"));
+
+        DailyDigest digest = renderer.render(client);
+
+        assertEquals(new DailyDigest("email@example.com",
+                "New books available:\nTitle: First, Author: Author\nTitle: Second, Author: Other"), digest);
+    }
+
+    @Test
+    void render_NoMatchingBooks_NoDigest() {
+        ClientSubscriptions client = client("email@example.com", Set.of("Unknown"), Set.of("Unknown"));
+
+        assertNull(renderer.render(client));
+    }
+
+    @Test
+    void render_ConsecutiveClients_BufferReusedWithoutLeakingPreviousDigest() {
+        DailyDigest first = renderer.render(client("first@example.com", Set.of("Other"), Set.of()));
+        DailyDigest second = renderer.render(client("second@example.com", Set.of("Author"), Set.of()));
+
+        assertEquals("New books available:\nTitle: Second, Author: Other\nTitle: Third, Author: Other", first.getText());
+        assertEquals("New books available:\nTitle: First, Author: Author", second.getText());
+    }
+
+    @Test
+    void render_SameSubscriptionsInAnyOrder_BodyRenderedOnceAndShared() {
+        DailyDigest first = renderer.render(client("first@example.com",
+                new LinkedHashSet<>(List.of("Author", "Other")), Set.of("Category")));
+        DailyDigest second = renderer.render(client("second@example.com",
+                new LinkedHashSet<>(List.of("Other", "Author")), Set.of("Category")));
+
+        assertEquals("first@example.com", first.getEmail());
+        assertEquals("second@example.com", second.getEmail());
+        assertSame(first.getText(), second.getText());
+        assertEquals(1, renderer.distinctFingerprints());
+    }
+
+    @Test
+    void render_NullSubscriptions_TreatedAsEmpty() {
+        assertNull(renderer.render(new ClientSubscriptions(1, "email@example.com", null, null)));
+    }
+
+    @Test
+    void render_ManyMatchingBooks_WholeDigestRendered() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            books.add(book(i, "Title" + i, "Author", "Category"));
+        }
+        DigestRenderer manyBooks = DigestRenderer.of(NewBooksIndex.of(books), 100);
+
+        DailyDigest digest = manyBooks.render(client("email@example.com", Set.of("Author"), Set.of()));
+
+        assertEquals(5001, digest.getText().split("\n").length);
+        assertTrue(digest.getText().endsWith("Title: Title4999, Author: Author"));
+    }
+
+    private static ClientSubscriptions client(String email, Set<String> authors, Set<String> categories) {
+        return new ClientSubscriptions(1, email, authors, categories);
+    }
+
+    private static Book book(int id, String title, String author, String category) {
+        return Book.builder().id(id).title(title).author(author).category(category).build();
+    }
+}
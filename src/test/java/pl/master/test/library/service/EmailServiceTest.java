@@ -9,7 +9,9 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import pl.master.test.library.model.dto.MailBatchReport;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,12 +24,15 @@ class EmailServiceTest {
     private EmailService emailService;
 
     @Mock
-    private JavaMailSender mailSender;
+    private MailOutbox mailOutbox;
+
+    @Mock
+    private MailBatchSender mailBatchSender;
 
 
 
     @Test
-    void sendSimpleMessage_MessageDetailsProvided_MessageSent() {
+    void sendSimpleMessage_MessageDetailsProvided_MessageQueued() {
         String to = "test@test.com";
         String subject = "Test";
         String text = "Test";
@@ -35,11 +40,21 @@ class EmailServiceTest {
         emailService.sendSimpleMessage(to, subject, text);
 
         ArgumentCaptor<SimpleMailMessage> messageCaptor = ArgumentCaptor.forClass(SimpleMailMessage.class);
-        verify(mailSender).send(messageCaptor.capture());
+        verify(mailOutbox).submit(messageCaptor.capture());
 
         SimpleMailMessage sentMessage = messageCaptor.getValue();
         assertEquals(to, sentMessage.getTo()[0]);
         assertEquals(subject, sentMessage.getSubject());
         assertEquals(text, sentMessage.getText());
     }
-}
\ No newline at end of file
+
+    @Test
+    void sendBatch_MessagesProvided_DelegatedToBatchSender() {
+        SimpleMailMessage message = new SimpleMailMessage();
+        MailBatchReport report = new MailBatchReport();
+        when(mailBatchSender.send(List.of(message))).thenReturn(report);
+
+        assertSame(report, emailService.sendBatch(List.of(message)));
+        verifyNoInteractions(mailOutbox);
+    }
+}
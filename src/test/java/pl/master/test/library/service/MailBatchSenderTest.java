@@ -0,0 +1,112 @@
+package pl.master.test.library.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.master.test.library.model.dto.MailBatchReport;
+import pl.master.test.library.properties.LibraryMailProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MailBatchSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MailBatchSender mailBatchSender;
+
+    @AfterEach
+    void tearDown() {
+        mailBatchSender.shutdown();
+    }
+
+    @Test
+    void send_FakeSmtpServer_AllMessagesDelivered() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailBatchSender = create(mailSender);
+        List<SimpleMailMessage> messages = messages(7);
+
+        MailBatchReport report = mailBatchSender.send(messages);
+
+        assertFalse(report.hasFailures());
+        assertEquals(7, report.getDelivered().size());
+        assertEquals(7, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void send_SeveralChunks_OneSendCallPerConnection() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        mailBatchSender = create(mailSender);
+
+        mailBatchSender.send(messages(7));
+
+        verify(mailSender, times(3)).send(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    void send_PartialFailure_ReportedPerMessage() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        List<SimpleMailMessage> messages = messages(3);
+        SimpleMailMessage rejected = messages.get(1);
+        doThrow(new MailSendException("Mailbox unavailable", null, Map.of(rejected, new RuntimeException())))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        mailBatchSender = create(mailSender);
+
+        MailBatchReport report = mailBatchSender.send(messages);
+
+        assertTrue(report.hasFailures());
+        assertEquals(List.of(rejected), new ArrayList<>(report.getFailed().keySet()));
+        assertTrue(report.isDelivered(messages.get(0)));
+        assertFalse(report.isDelivered(rejected));
+        assertTrue(report.isDelivered(messages.get(2)));
+    }
+
+    @Test
+    void send_ServerRejectsConnection_WholeChunkFailed() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new MailAuthenticationException("Bad credentials"))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        mailBatchSender = create(mailSender);
+
+        MailBatchReport report = mailBatchSender.send(messages(2));
+
+        assertEquals(2, report.getFailed().size());
+        assertTrue(report.getDelivered().isEmpty());
+    }
+
+    private static MailBatchSender create(JavaMailSender mailSender) {
+        LibraryMailProperties properties = new LibraryMailProperties();
+        properties.getBulk().setConnections(2);
+        properties.getBulk().setMessagesPerConnection(3);
+        return new MailBatchSender(mailSender, properties, new SimpleMeterRegistry());
+    }
+
+    private static List<SimpleMailMessage> messages(int count) {
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("library@library.com");
+            message.setTo("client" + i + "@library.com");
+            message.setSubject("Subscribed books appeared");
+            message.setText("Digest " + i);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
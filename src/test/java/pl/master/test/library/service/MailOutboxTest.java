@@ -0,0 +1,122 @@
+package pl.master.test.library.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.master.test.library.config.MetricsConfig;
+import pl.master.test.library.properties.LibraryMailProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MailOutboxTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MailOutbox mailOutbox;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailOutbox.shutdown();
+    }
+
+    @Test
+    void submit_FakeSmtpServer_MessagesDelivered() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailOutbox = start(mailSender);
+
+        for (int i = 0; i < 5; i++) {
+            mailOutbox.submit(message("client" + i + "@library.com"));
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(5, received.length);
+    }
+
+    @Test
+    void submit_TransientFailure_RetriedWithBackoff() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        SimpleMailMessage message = message("retry@library.com");
+        doThrow(new MailSendException("Connection refused", null, Map.of(message, new RuntimeException())))
+                .doNothing()
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        mailOutbox = start(mailSender);
+
+        mailOutbox.submit(message);
+
+        verify(mailSender, timeout(2000).times(2)).send(any(SimpleMailMessage[].class));
+        assertEquals(1, failures("retried"));
+        assertTrue(meterRegistry.get(MetricsConfig.MAIL_SEND_TIMER).timer().count() >= 1);
+    }
+
+    @Test
+    void submit_PersistentFailure_GivesUpAfterMaxAttempts() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        SimpleMailMessage message = message("broken@library.com");
+        doThrow(new MailSendException("Connection refused", null, Map.of(message, new RuntimeException())))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        mailOutbox = start(mailSender);
+
+        mailOutbox.submit(message);
+
+        verify(mailSender, timeout(2000).times(3)).send(any(SimpleMailMessage[].class));
+        verify(mailSender, after(200).times(3)).send(any(SimpleMailMessage[].class));
+        assertEquals(2, failures("retried"));
+        assertEquals(1, failures("gave_up"));
+    }
+
+    @Test
+    void submit_RejectedByServer_NotRetried() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new MailAuthenticationException("Bad credentials"))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        mailOutbox = start(mailSender);
+
+        mailOutbox.submit(message("auth@library.com"));
+
+        verify(mailSender, timeout(1000)).send(any(SimpleMailMessage[].class));
+        verify(mailSender, after(200).times(1)).send(any(SimpleMailMessage[].class));
+        assertEquals(1, failures("rejected"));
+    }
+
+    private double failures(String outcome) {
+        return meterRegistry.get(MetricsConfig.MAIL_FAILURES).tag("outcome", outcome).counter().count();
+    }
+
+    private MailOutbox start(JavaMailSender mailSender) {
+        LibraryMailProperties properties = new LibraryMailProperties();
+        properties.getOutbox().setWorkers(2);
+        properties.getOutbox().setCapacity(10);
+        properties.getOutbox().setInitialBackoff(Duration.ofMillis(10));
+        MailOutbox outbox = new MailOutbox(mailSender, properties, meterRegistry);
+        outbox.start();
+        return outbox;
+    }
+
+    private static SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("library@library.com");
+        message.setTo(to);
+        message.setSubject("Subject");
+        message.setText("Text");
+        return message;
+    }
+}
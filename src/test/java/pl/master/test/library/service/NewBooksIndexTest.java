@@ -0,0 +1,49 @@
+package pl.master.test.library.service;
+
+import org.junit.jupiter.api.Test;
+import pl.master.test.library.model.Book;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewBooksIndexTest {
+
+    private final Book potter = Book.builder().id(1).title("Potter").author("Rowling").category("Fantasy").build();
+    private final Book hobbit = Book.builder().id(2).title("Hobbit").author("Tolkien").category("Fantasy").build();
+    private final Book shining = Book.builder().id(3).title("Shining").author("King").category("Horror").build();
+
+    @Test
+    void match_AuthorAndCategoryOverlap_EachBookReturnedOnce() {
+        NewBooksIndex index = NewBooksIndex.of(List.of(potter, hobbit, shining));
+
+        List<Book> matched = index.match(Set.of("Rowling"), Set.of("Fantasy"));
+
+        assertEquals(List.of(potter, hobbit), matched);
+    }
+
+    @Test
+    void match_NoSubscriptionMatches_ReturnsEmptyList() {
+        NewBooksIndex index = NewBooksIndex.of(List.of(potter, hobbit));
+
+        assertTrue(index.match(Set.of("King"), Set.of("Horror")).isEmpty());
+    }
+
+    @Test
+    void match_NullSubscriptions_TreatedAsEmpty() {
+        NewBooksIndex index = NewBooksIndex.of(List.of(shining));
+
+        assertEquals(List.of(shining), index.match(null, Set.of("Horror")));
+        assertTrue(index.match(null, null).isEmpty());
+    }
+
+    @Test
+    void isEmpty_NoBooks_ReturnsTrue() {
+        NewBooksIndex index = NewBooksIndex.of(Collections.emptyList());
+
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.size());
+    }
+}
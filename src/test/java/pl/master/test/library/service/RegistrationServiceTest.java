@@ -3,12 +3,21 @@ package pl.master.test.library.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.SimpleMailMessage;
 import pl.master.test.library.model.Client;
+import pl.master.test.library.model.dto.ClientDto;
+import pl.master.test.library.model.dto.MailBatchReport;
 import pl.master.test.library.properties.LibraryApiProperties;
 import pl.master.test.library.repository.ClientRepository;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +30,8 @@ class RegistrationServiceTest {
     private LibraryApiProperties libraryApiProperties;
     @Mock
     private EmailService emailService;
+    @Captor
+    private ArgumentCaptor<Collection<SimpleMailMessage>> messagesCaptor;
 
     private static Client client;
 
@@ -35,7 +46,7 @@ class RegistrationServiceTest {
 
     @Test
     void subscribeClientToCategory_ValidClient_EmailSent() {
-        registrationService.subscribeClientToCategory(client, "Sci-Fi");
+        registrationService.subscribeClientToCategory(ClientDto.fromEntity(client), "Sci-Fi");
 
         verify(emailService, times(1)).sendSimpleMessage(client.getEmail(),
                 "Subscription Successful - Category: Sci-Fi",
@@ -44,7 +55,7 @@ class RegistrationServiceTest {
 
     @Test
     void subscribeClientToAuthor_ValidClient_EmailSent() {
-        registrationService.subscribeClientToAuthor(client, "Stephen King");
+        registrationService.subscribeClientToAuthor(ClientDto.fromEntity(client), "Stephen King");
 
         verify(emailService, times(1)).sendSimpleMessage(client.getEmail(),
                 "Subscription Successful - Author: Stephen King",
@@ -53,7 +64,7 @@ class RegistrationServiceTest {
 
     @Test
     void unsubscribeClientToCategory_ValidClient_EmailSent() {
-        registrationService.unsubscribeClientToCategory(client, "Sci-Fi");
+        registrationService.unsubscribeClientToCategory(ClientDto.fromEntity(client), "Sci-Fi");
 
         verify(emailService, times(1)).sendSimpleMessage(client.getEmail(),
                 "Subscription Removal Successful - Category: Sci-Fi",
@@ -62,13 +73,22 @@ class RegistrationServiceTest {
 
     @Test
     void unsubscribeClientAuthor_ValidClient_EmailSent() {
-        registrationService.unsubscribeClientAuthor(client, "Stephen King");
+        registrationService.unsubscribeClientAuthor(ClientDto.fromEntity(client), "Stephen King");
 
         verify(emailService, times(1)).sendSimpleMessage(client.getEmail(),
                 "Subscription Removal Successful - Author: Stephen King",
                 "Hello Jehbleh, You have successfully unsubscribed to the author: Stephen King");
     }
 
+    @Test
+    void newBookAdded_ValidClient_EmailSent() {
+        registrationService.newBookAdded("test@example.com", "Potter", "Rowling", "Fantasy");
+
+        verify(emailService, times(1)).sendSimpleMessage("test@example.com",
+                "New book added - Potter",
+                "New book available: Potter, Author: Rowling, Category: Fantasy");
+    }
+
     @Test
     void newLibraryPosition_ValidClient_EmailSent() {
         registrationService.newLibraryPosition(client.getEmail(), "The Dark Tower");
@@ -78,6 +98,27 @@ class RegistrationServiceTest {
                 "The Dark Tower");
     }
 
+    @Test
+    void newLibraryPositions_SeveralClients_SentAsOneBatch() {
+        MailBatchReport report = new MailBatchReport();
+        when(emailService.sendBatch(any())).thenReturn(report);
+        Map<String, String> digests = new LinkedHashMap<>();
+        digests.put("first@example.com", "The Dark Tower");
+        digests.put("second@example.com", "It");
+
+        MailBatchReport returned = registrationService.newLibraryPositions(digests);
+
+        verify(emailService).sendBatch(messagesCaptor.capture());
+        List<SimpleMailMessage> messages = new ArrayList<>(messagesCaptor.getValue());
+        assertEquals(2, messages.size());
+        assertEquals("first@example.com", messages.get(0).getTo()[0]);
+        assertEquals("Subscribed books appeared", messages.get(0).getSubject());
+        assertEquals("The Dark Tower", messages.get(0).getText());
+        assertEquals("second@example.com", messages.get(1).getTo()[0]);
+        assertEquals("It", messages.get(1).getText());
+        assertSame(report, returned);
+    }
+
     @Test
     void confirmationEmail_ValidClient_EmailSent() {
         registrationService.confirmationEmail(client, "sample-token");
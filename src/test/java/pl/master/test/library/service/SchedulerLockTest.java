@@ -0,0 +1,103 @@
+package pl.master.test.library.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import pl.master.test.library.model.SchedulerLease;
+import pl.master.test.library.repository.SchedulerLeaseRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SchedulerLockTest {
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        leaseRepository.save(new SchedulerLease(DailyNotificationService.DAILY_DIGEST_LEASE, null,
+                LocalDateTime.of(1970, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void tryAcquire_LeaseHeldByOtherNode_NotAcquired() {
+        SchedulerLock first = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        SchedulerLock second = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+
+        assertTrue(first.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+        assertFalse(second.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+        assertEquals(first.getOwner(),
+                leaseRepository.findById(DailyNotificationService.DAILY_DIGEST_LEASE).orElseThrow().getOwner());
+    }
+
+    @Test
+    void tryAcquire_LeaseReleased_AcquiredByOtherNode() {
+        SchedulerLock first = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        SchedulerLock second = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        assertTrue(first.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+
+        first.release(DailyNotificationService.DAILY_DIGEST_LEASE);
+
+        assertTrue(second.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+    }
+
+    @Test
+    void tryAcquire_LeaseExpired_TakenOverByOtherNode() {
+        SchedulerLock crashed = new SchedulerLock(leaseRepository, Duration.ofSeconds(-1));
+        SchedulerLock second = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        assertTrue(crashed.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+
+        assertTrue(second.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+    }
+
+    @Test
+    void extend_LeaseExpiredAndTakenOver_ReportsLossAndKeepsNewOwner() {
+        SchedulerLock crashed = new SchedulerLock(leaseRepository, Duration.ofSeconds(-1));
+        SchedulerLock second = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        assertTrue(crashed.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+        assertTrue(second.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+
+        assertFalse(crashed.extend(DailyNotificationService.DAILY_DIGEST_LEASE));
+
+        assertEquals(second.getOwner(),
+                leaseRepository.findById(DailyNotificationService.DAILY_DIGEST_LEASE).orElseThrow().getOwner());
+        assertTrue(second.extend(DailyNotificationService.DAILY_DIGEST_LEASE));
+    }
+
+    @Test
+    void extend_HalfOfLeaseElapsed_LockedUntilPushedForward() throws InterruptedException {
+        SchedulerLock lock = new SchedulerLock(leaseRepository, Duration.ofMillis(400));
+        assertTrue(lock.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+        LocalDateTime acquiredUntil = leaseRepository.findById(DailyNotificationService.DAILY_DIGEST_LEASE).orElseThrow()
+                .getLockedUntil();
+        Thread.sleep(250);
+
+        assertTrue(lock.extend(DailyNotificationService.DAILY_DIGEST_LEASE));
+
+        SchedulerLease lease = leaseRepository.findById(DailyNotificationService.DAILY_DIGEST_LEASE).orElseThrow();
+        assertEquals(lock.getOwner(), lease.getOwner());
+        assertTrue(lease.getLockedUntil().isAfter(acquiredUntil));
+    }
+
+    @Test
+    void release_NotOwner_LeaseKept() {
+        SchedulerLock first = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        SchedulerLock second = new SchedulerLock(leaseRepository, Duration.ofHours(1));
+        assertTrue(first.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+
+        second.release(DailyNotificationService.DAILY_DIGEST_LEASE);
+
+        assertFalse(second.tryAcquire(DailyNotificationService.DAILY_DIGEST_LEASE));
+    }
+}
@@ -0,0 +1,96 @@
+package pl.master.test.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.master.test.library.config.AmqpConfig;
+import pl.master.test.library.model.event.SubscriptionChangedEvent;
+import pl.master.test.library.model.event.SubscriptionChangedEvent.Kind;
+import pl.master.test.library.repository.ClientRepository;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriberIndexTest {
+    private SubscriberIndex subscriberIndex;
+
+    @Mock
+    private ClientRepository clientRepository;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(clientRepository.streamAllSubscribedAuthors()).thenAnswer(invocation -> Stream.of(
+                new Object[]{1, "Rowling"}, new Object[]{2, "Rowling"}, new Object[]{3, "King"}));
+        when(clientRepository.streamAllSubscribedCategories()).thenAnswer(invocation -> Stream.of(
+                new Object[]{2, "Fantasy"}, new Object[]{4, "Fantasy"}));
+        subscriberIndex = new SubscriberIndex(clientRepository, rabbitTemplate, transactionManager);
+        subscriberIndex.rebuild();
+    }
+
+    @Test
+    void subscribersOf_AuthorAndCategory_UnionOfBoth() {
+        assertArrayEquals(new int[]{1, 2, 4}, subscriberIndex.subscribersOf("Rowling", "Fantasy"));
+    }
+
+    @Test
+    void subscribersOf_UnknownNames_Empty() {
+        assertEquals(0, subscriberIndex.subscribersOf("Tolkien", "Adventure").length);
+    }
+
+    @Test
+    void authorSubscribed_NewSubscriber_Included() {
+        subscriberIndex.authorSubscribed(7, "Tolkien");
+
+        assertArrayEquals(new int[]{7}, subscriberIndex.subscribersOf("Tolkien", null));
+        verify(rabbitTemplate).convertAndSend(eq(AmqpConfig.SUBSCRIPTION_CHANGED_EXCHANGE), eq(""),
+                any(SubscriptionChangedEvent.class));
+    }
+
+    @Test
+    void onSubscriptionChanged_ChangeFromAnotherNode_Applied() {
+        subscriberIndex.onSubscriptionChanged(new SubscriptionChangedEvent("other-node", 1, Kind.AUTHOR, "Rowling", false));
+        subscriberIndex.onSubscriptionChanged(new SubscriptionChangedEvent("other-node", 5, Kind.CATEGORY, "Horror", true));
+
+        assertArrayEquals(new int[]{2}, subscriberIndex.subscribersOf("Rowling", null));
+        assertArrayEquals(new int[]{5}, subscriberIndex.subscribersOf(null, "Horror"));
+    }
+
+    @Test
+    void categoryUnsubscribed_Subscriber_Excluded() {
+        subscriberIndex.categoryUnsubscribed(4, "Fantasy");
+        subscriberIndex.categoryUnsubscribed(4, "Fantasy");
+
+        assertArrayEquals(new int[]{1, 2}, subscriberIndex.subscribersOf("Rowling", "Fantasy"));
+    }
+
+    @Test
+    void rebuild_SubscriptionsChangedWhileQueryRuns_ChangesKept() {
+        when(clientRepository.streamAllSubscribedAuthors()).thenAnswer(invocation -> {
+            Thread subscriber = new Thread(() -> {
+                subscriberIndex.authorSubscribed(9, "Rowling");
+                subscriberIndex.authorUnsubscribed(1, "Rowling");
+            });
+            subscriber.start();
+            subscriber.join();
+            return Stream.of(new Object[]{1, "Rowling"}, new Object[]{2, "Rowling"});
+        });
+
+        subscriberIndex.rebuild();
+
+        assertArrayEquals(new int[]{2, 9}, subscriberIndex.subscribersOf("Rowling", null));
+    }
+}